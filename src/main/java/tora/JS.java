@@ -1,21 +1,85 @@
 package tora;
 
 import gw.util.GosuExceptionUtil;
+import tora.engine.EngineFactory;
+import tora.engine.ScriptCache;
+import tora.engine.ScriptExecutor;
+
+import jdk.nashorn.api.scripting.JSObject;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class JS
 {
-
   public static Object eval(String str) {
-    ScriptEngine engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+    return eval( compile( str ), null );
+  }
+
+  private static CompiledScript compile( String src )
+  {
+    try
+    {
+      return ScriptCache.getShared().get( src );
+    }
+    catch( ScriptException e )
+    {
+      throw GosuExceptionUtil.forceThrow( e );
+    }
+  }
+
+  /*Every evaluation gets a fresh global scope of the shared engine, so no variable outlives the call that set it,
+   *whichever thread runs the next one. A new global is far cheaper than a new engine, and the compiled script is
+   *reused. Script parameters are defined in that global, so nothing can shadow them and concurrent calls never
+   *see each other's arguments*/
+  private static ScriptContext newContext( Bindings params )
+  {
+    Bindings global = EngineFactory.getSharedEngine().createBindings();
+    if( params != null )
+    {
+      global.putAll( params );
+    }
+    ScriptContext context = new SimpleScriptContext();
+    context.setBindings( global, ScriptContext.ENGINE_SCOPE );
+    return context;
+  }
+
+  /*Evaluates on a script worker's own engine when called from one, and on the shared engine otherwise*/
+  private static <T> CompletableFuture<T> evalAsync( String src, CompiledScript script, Bindings params, Executor executor )
+  {
+    try
+    {
+      return CompletableFuture.supplyAsync( () -> {
+        ScriptExecutor.Worker worker = ScriptExecutor.currentWorker();
+        return (T)(worker == null ? eval( script, params ) : worker.eval( src, params ));
+      }, executor );
+    }
+    catch( RejectedExecutionException e )
+    {
+      CompletableFuture<T> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally( e );
+      return rejected;
+    }
+  }
+
+  private static Object eval( CompiledScript script, Bindings params )
+  {
     try
     {
-      return engine.eval(str);
+      return script.eval( newContext( params ) );
     }
     catch( ScriptException e )
     {
@@ -43,83 +107,434 @@ public class JS
     return new JSScript2<>(src, p1, p2);
   }
 
+  public static <R> FunctionBuilder<R> buildFunction( String src, Class<R> returnType )
+  {
+    return new FunctionBuilder<>( src, returnType );
+  }
+
   //================================================================
-  //
+  // Scripts are compiled once when built and are safe to share between threads
   //================================================================
 
   public static class JSScript0<R>
   {
     private final String _src;
+    private final CompiledScript _script;
 
     public JSScript0( String src )
     {
       _src = src;
+      _script = compile( src );
     }
 
     public R eval() {
-      return (R) JS.eval( _src );
+      return (R) JS.eval( _script, null );
+    }
+
+    public CompletableFuture<R> evalAsync()
+    {
+      return evalAsync( ScriptExecutor.getShared() );
+    }
+
+    public CompletableFuture<R> evalAsync( Executor executor )
+    {
+      return JS.evalAsync( _src, _script, null, executor );
     }
   }
 
   public static class JSScript1<T, A1>
   {
     private final String _src;
+    private final CompiledScript _script;
     private final Param<A1> _p1;
+    private final BatchScript _batch;
 
     public JSScript1( String src, Param<A1> p1 )
     {
       _src = src;
+      _script = compile( src );
       _p1 = p1;
+      _batch = new BatchScript( src, p1.getName() );
     }
 
     public T eval( A1 arg )
     {
-      Object result;
-      ScriptEngine engine = new ScriptEngineManager().getEngineByName( "nashorn" );
-      try
-      {
-        Bindings bindings = engine.getBindings( ScriptContext.ENGINE_SCOPE );
-        bindings.put( _p1.getName(), arg );
-        result = engine.eval( _src );
-      }
-      catch( ScriptException e )
-      {
-        throw GosuExceptionUtil.forceThrow( e );
-      }
-      return (T)result;
+      Bindings bindings = new SimpleBindings();
+      bindings.put( _p1.getName(), arg );
+      return (T) JS.eval( _script, bindings );
+    }
+
+    public CompletableFuture<T> evalAsync( A1 arg )
+    {
+      return evalAsync( arg, ScriptExecutor.getShared() );
+    }
+
+    public CompletableFuture<T> evalAsync( A1 arg, Executor executor )
+    {
+      Bindings bindings = new SimpleBindings();
+      bindings.put( _p1.getName(), arg );
+      return JS.evalAsync( _src, _script, bindings, executor );
+    }
+
+    public List<T> evalBatch( List<A1> args )
+    {
+      return (List<T>)Arrays.asList( _batch.eval( args.size(), args ) );
+    }
+
+    public List<T> evalBatch( A1[] args )
+    {
+      return (List<T>)Arrays.asList( _batch.eval( args.length, (Object)args ) );
+    }
+
+    /*False if the script is not a single expression, in which case evalBatch evaluates the source once per input*/
+    public boolean isSingleExpression()
+    {
+      return _batch.isSingleExpression();
     }
   }
 
   public static class JSScript2<T, A1, A2>
   {
     private final String _src;
+    private final CompiledScript _script;
     private final Param<A1> _p1;
     private final Param<A2> _p2;
+    private final BatchScript _batch;
 
     public JSScript2( String src, Param<A1> p1, Param<A2> p2 )
     {
       _src = src;
+      _script = compile( src );
       _p1 = p1;
       _p2 = p2;
+      _batch = new BatchScript( src, p1.getName(), p2.getName() );
     }
 
     public T eval( A1 arg, A2 arg2 )
     {
-      Object result;
-      ScriptEngine engine = new ScriptEngineManager().getEngineByName( "nashorn" );
-      try
+      Bindings bindings = new SimpleBindings();
+      bindings.put( _p1.getName(), arg );
+      bindings.put( _p2.getName(), arg2 );
+      return (T) JS.eval( _script, bindings );
+    }
+
+    public CompletableFuture<T> evalAsync( A1 arg, A2 arg2 )
+    {
+      return evalAsync( arg, arg2, ScriptExecutor.getShared() );
+    }
+
+    public CompletableFuture<T> evalAsync( A1 arg, A2 arg2, Executor executor )
+    {
+      Bindings bindings = new SimpleBindings();
+      bindings.put( _p1.getName(), arg );
+      bindings.put( _p2.getName(), arg2 );
+      return JS.evalAsync( _src, _script, bindings, executor );
+    }
+
+    public List<T> evalBatch( List<A1> args, List<A2> args2 )
+    {
+      checkBatchSizes( args.size(), args2.size() );
+      return (List<T>)Arrays.asList( _batch.eval( args.size(), args, args2 ) );
+    }
+
+    public List<T> evalBatch( A1[] args, A2[] args2 )
+    {
+      checkBatchSizes( args.length, args2.length );
+      return (List<T>)Arrays.asList( _batch.eval( args.length, args, args2 ) );
+    }
+
+    /*False if the script is not a single expression, in which case evalBatch evaluates the source once per input*/
+    public boolean isSingleExpression()
+    {
+      return _batch.isSingleExpression();
+    }
+  }
+
+  private static void checkBatchSizes( int size, int size2 )
+  {
+    if( size != size2 )
+    {
+      throw new IllegalArgumentException( "Batch arguments differ in size: " + size + " and " + size2 );
+    }
+  }
+
+  /*Evaluates a script over a batch of inputs with one call into the engine. The source is put in a function that
+   *loops over the inputs and writes into a preallocated result array. A single expression is inlined in the loop;
+   *any other script is run through eval in the loop, which still takes one call but evaluates the source for each
+   *input, so isSingleExpression() tells which form a script got. The loop's own names are chosen so that they
+   *can't appear in the source, and the function is built inside an IIFE so nothing is added to the global scope*/
+  private static class BatchScript
+  {
+    private final String _src;
+    private final String[] _names;
+    private CompiledScript _loop;
+    private boolean _singleExpression;
+
+    BatchScript( String src, String... names )
+    {
+      _src = src;
+      _names = names;
+    }
+
+    /*inputs holds one List or array per param*/
+    Object[] eval( int count, Object... inputs )
+    {
+      Object[] results = new Object[count];
+      Object[] args = Arrays.copyOf( inputs, inputs.length + 2 );
+      args[inputs.length] = results;
+      args[inputs.length + 1] = count;
+      ((JSObject)JS.eval( getLoop(), null )).call( null, args );
+      return results;
+    }
+
+    synchronized boolean isSingleExpression()
+    {
+      getLoop();
+      return _singleExpression;
+    }
+
+    private synchronized CompiledScript getLoop()
+    {
+      if( _loop == null )
+      {
+        String expression = _src.trim();
+        while( expression.endsWith( ";" ) )
+        {
+          expression = expression.substring( 0, expression.length() - 1 ).trim();
+        }
+        try
+        {
+          _loop = ScriptCache.getShared().get( genLoop( "(" + expression + "\n)" ) );
+          _singleExpression = true;
+        }
+        catch( ScriptException e )
+        {
+          //not a single expression
+          _loop = compile( genLoop( "eval(" + quote( _src ) + ")" ) );
+        }
+      }
+      return _loop;
+    }
+
+    private String genLoop( String body )
+    {
+      String[] inputs = new String[_names.length];
+      StringBuilder code = new StringBuilder( "(function() { return function(" );
+      for( int p = 0; p < _names.length; p++ )
+      {
+        inputs[p] = freshName( "$in" + p );
+        code.append( inputs[p] ).append( ", " );
+      }
+      String out = freshName( "$out" );
+      String count = freshName( "$count" );
+      String i = freshName( "$i" );
+      code.append( out ).append( ", " ).append( count ).append( ") { for (var " ).append( i ).append( " = 0; " )
+        .append( i ).append( " < " ).append( count ).append( "; " ).append( i ).append( "++) {" );
+      for( int p = 0; p < _names.length; p++ )
       {
-        Bindings bindings = engine.getBindings( ScriptContext.ENGINE_SCOPE );
-        bindings.put( _p1.getName(), arg );
-        bindings.put( _p2.getName(), arg2 );
-        result = engine.eval( _src );
+        code.append( " var " ).append( _names[p] ).append( " = " ).append( inputs[p] ).append( "[" ).append( i )
+          .append( "];" );
       }
-      catch( ScriptException e )
+      code.append( " " ).append( out ).append( "[" ).append( i ).append( "] = " ).append( body )
+        .append( "; } }; })()" );
+      return code.toString();
+    }
+
+    /*A name that is neither a param nor anywhere in the source, so the script can't refer to it*/
+    private String freshName( String name )
+    {
+      while( _src.contains( name ) || Arrays.asList( _names ).contains( name ) )
       {
-        throw GosuExceptionUtil.forceThrow( e );
+        name += "$";
       }
-      return (T)result;
+      return name;
     }
+
+    private static String quote( String src )
+    {
+      StringBuilder quoted = new StringBuilder( "\"" );
+      for( char c : src.toCharArray() )
+      {
+        if( c == '"' || c == '\\' )
+        {
+          quoted.append( '\\' ).append( c );
+        }
+        else if( c < ' ' || c == '\u2028' || c == '\u2029' )
+        {
+          quoted.append( String.format( "\\u%04x", (int)c ) );
+        }
+        else
+        {
+          quoted.append( c );
+        }
+      }
+      return quoted.append( '"' ).toString();
+    }
+  }
+
+  //================================================================
+  // Typed functions of any arity
+  //================================================================
+
+  @FunctionalInterface
+  public interface JSFunction<R>
+  {
+    R apply( Object... args );
+  }
+
+  /*Builds a script taking any number of typed params. Argument marshaling and result coercion are chosen once
+   *from the declared classes, so a call only runs the precomputed conversions*/
+  public static class FunctionBuilder<R>
+  {
+    private final String _src;
+    private final Class<R> _returnType;
+    private final List<Param<?>> _params = new ArrayList<>();
+
+    public FunctionBuilder( String src, Class<R> returnType )
+    {
+      _src = src;
+      _returnType = returnType;
+    }
+
+    public FunctionBuilder<R> withParam( Param<?> param )
+    {
+      _params.add( param );
+      return this;
+    }
+
+    public <T> FunctionBuilder<R> withParam( Class<T> type, String name )
+    {
+      return withParam( param( type, name ) );
+    }
+
+    public JSFunction<R> build()
+    {
+      CompiledScript script = compile( _src );
+      String[] names = new String[_params.size()];
+      List<Function<Object, Object>> marshalers = new ArrayList<>( _params.size() );
+      for( int i = 0; i < names.length; i++ )
+      {
+        names[i] = _params.get( i ).getName();
+        marshalers.add( marshaler( _params.get( i ).getType() ) );
+      }
+      Function<Object, R> coercer = coercer( _returnType );
+      return args -> {
+        if( args.length != names.length )
+        {
+          throw new IllegalArgumentException( "Expected " + names.length + " arguments, got " + args.length );
+        }
+        Bindings bindings = new SimpleBindings();
+        for( int i = 0; i < names.length; i++ )
+        {
+          bindings.put( names[i], marshalers.get( i ).apply( args[i] ) );
+        }
+        return coercer.apply( JS.eval( script, bindings ) );
+      };
+    }
+
+    public Supplier<R> buildSupplier()
+    {
+      JSFunction<R> function = buildWithArity( 0 );
+      return () -> function.apply();
+    }
+
+    public <A1> Function<A1, R> buildFunction()
+    {
+      JSFunction<R> function = buildWithArity( 1 );
+      return a1 -> function.apply( a1 );
+    }
+
+    public <A1, A2> BiFunction<A1, A2, R> buildBiFunction()
+    {
+      JSFunction<R> function = buildWithArity( 2 );
+      return ( a1, a2 ) -> function.apply( a1, a2 );
+    }
+
+    private JSFunction<R> buildWithArity( int arity )
+    {
+      if( _params.size() != arity )
+      {
+        throw new IllegalStateException( "Expected " + arity + " params, but " + _params.size() + " were declared" );
+      }
+      return build();
+    }
+  }
+
+  /*Converts an argument of the given class to the value nashorn should see*/
+  private static Function<Object, Object> marshaler( Class<?> type )
+  {
+    if( type == Character.class || type == char.class )
+    {
+      return o -> o == null ? null : o.toString();
+    }
+    if( type == Long.class || type == long.class || type == Float.class || type == float.class ||
+        type == Short.class || type == short.class || type == Byte.class || type == byte.class )
+    {
+      return o -> o == null ? null : ((Number)o).doubleValue();
+    }
+    return Function.identity();
+  }
+
+  /*Converts a script result to the declared return class*/
+  private static <R> Function<Object, R> coercer( Class<R> type )
+  {
+    Function<Object, ?> coercer;
+    if( type == Integer.class || type == int.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).intValue();
+    }
+    else if( type == Double.class || type == double.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).doubleValue();
+    }
+    else if( type == Long.class || type == long.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).longValue();
+    }
+    else if( type == Float.class || type == float.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).floatValue();
+    }
+    else if( type == Short.class || type == short.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).shortValue();
+    }
+    else if( type == Byte.class || type == byte.class )
+    {
+      coercer = o -> o == null ? null : ((Number)o).byteValue();
+    }
+    else if( type == Boolean.class || type == boolean.class )
+    {
+      coercer = o -> (Boolean)o;
+    }
+    else if( type == Character.class || type == char.class )
+    {
+      //javascript has no chars; a one character string is the natural result
+      coercer = o -> {
+        if( o == null || o instanceof Character )
+        {
+          return o;
+        }
+        if( o instanceof CharSequence && ((CharSequence)o).length() == 1 )
+        {
+          return ((CharSequence)o).charAt( 0 );
+        }
+        throw new ClassCastException( "Cannot coerce " + o + " to " + type.getName() );
+      };
+    }
+    else if( type == String.class )
+    {
+      coercer = o -> o == null ? null : o.toString();
+    }
+    else if( type == Object.class )
+    {
+      coercer = Function.identity();
+    }
+    else
+    {
+      coercer = type::cast;
+    }
+    return (Function<Object, R>)coercer;
   }
 
   public static class Param<T> {
@@ -135,6 +550,11 @@ public class JS
     {
       return _name;
     }
+
+    public Class<T> getType()
+    {
+      return _type;
+    }
   }
 
 }
@@ -0,0 +1,77 @@
+package tora.engine;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/*Opt-in persistent code cache for the engines of javascript types. When the tora.codeCache.dir system property is
+ *set, init() enables the cache and type engines created afterwards use nashorn's persistent code cache in that
+ *directory, so a restarted JVM reuses the classes compiled for unchanged types instead of recompiling them. Each
+ *type's generated code is evaluated under a name carrying a hash of that code, so an entry is only reused for
+ *identical generated code*/
+public class CodeCache
+{
+  public static final String DIRECTORY_PROPERTY = "tora.codeCache.dir";
+  //nashorn only reads the cache directory from this system property, when an engine with a persistent code cache
+  //is created
+  static final String NASHORN_DIRECTORY_PROPERTY = "nashorn.persistent.code.cache";
+  private static final String[] CACHE_OPTIONS = {"--persistent-code-cache"};
+  private static final String[] NO_OPTIONS = {};
+
+  private static volatile boolean _enabled;
+
+  /*Enables the cache if tora.codeCache.dir is set, pointing nashorn at that directory, and disables it otherwise.
+   *Called once by the javascript type loader, before it creates any engine*/
+  public static synchronized void init()
+  {
+    String directory = System.getProperty( DIRECTORY_PROPERTY );
+    if( directory != null )
+    {
+      System.setProperty( NASHORN_DIRECTORY_PROPERTY, directory );
+    }
+    _enabled = directory != null;
+  }
+
+  public static boolean isEnabled()
+  {
+    return _enabled;
+  }
+
+  /*Engine options enabling the cache, if it is enabled*/
+  public static String[] engineOptions()
+  {
+    return _enabled ? CACHE_OPTIONS : NO_OPTIONS;
+  }
+
+  /*Evaluates the generated code of a type, named so cached classes are tied to this exact code*/
+  public static Object eval( ScriptEngine engine, ScriptContext context, String typeName, String code )
+    throws ScriptException
+  {
+    if( isEnabled() )
+    {
+      context.setAttribute( ScriptEngine.FILENAME, typeName + "-" + hash( code ) + ".js", ScriptContext.ENGINE_SCOPE );
+    }
+    return engine.eval( code, context );
+  }
+
+  static String hash( String code )
+  {
+    try
+    {
+      byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( code.getBytes( StandardCharsets.UTF_8 ) );
+      StringBuilder hex = new StringBuilder();
+      for( int i = 0; i < 16; i++ )
+      {
+        hex.append( String.format( "%02x", digest[i] ) );
+      }
+      return hex.toString();
+    }
+    catch( NoSuchAlgorithmException e )
+    {
+      throw new IllegalStateException( e );
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package tora.engine;
+
+import gw.util.concurrent.LockingLazyVar;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+/*Process-wide source of nashorn engines. Engine discovery through ScriptEngineManager is done once, and
+ *ad-hoc scripts share a single engine instead of paying for a new one on every evaluation*/
+public class EngineFactory
+{
+  private static final String ENGINE_NAME = "nashorn";
+
+  private static final LockingLazyVar<ScriptEngineFactory> FACTORY = new LockingLazyVar<ScriptEngineFactory>()
+  {
+    @Override
+    protected ScriptEngineFactory init()
+    {
+      ScriptEngine engine = new ScriptEngineManager().getEngineByName( ENGINE_NAME );
+      if( engine == null )
+      {
+        throw new IllegalStateException( "No script engine found for " + ENGINE_NAME );
+      }
+      return engine.getFactory();
+    }
+  };
+
+  private static final LockingLazyVar<ScriptEngine> SHARED_ENGINE = new LockingLazyVar<ScriptEngine>()
+  {
+    @Override
+    protected ScriptEngine init()
+    {
+      return EngineSupply.forKind( EngineKind.SCRIPT ).borrow();
+    }
+  };
+
+  /*Creates a new engine with its own global scope and the given nashorn options, skipping engine discovery*/
+  public static ScriptEngine newEngine( String... options )
+  {
+    if( options.length == 0 )
+    {
+      return FACTORY.get().getScriptEngine();
+    }
+    return ((NashornScriptEngineFactory)FACTORY.get()).getScriptEngine( options );
+  }
+
+  /*Returns the engine shared by all ad-hoc scripts*/
+  public static ScriptEngine getSharedEngine()
+  {
+    return SHARED_ENGINE.get();
+  }
+}
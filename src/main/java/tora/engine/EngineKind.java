@@ -0,0 +1,31 @@
+package tora.engine;
+
+/*The kinds of engines tora creates, each configured and supplied separately*/
+public enum EngineKind
+{
+  PROGRAM( "program", true ),
+  CLASS( "class", true ),
+  TEMPLATE( "template", true ),
+  SCRIPT( "script", false );
+
+  private final String _configName;
+  private final boolean _typeEngine;
+
+  EngineKind( String configName, boolean typeEngine )
+  {
+    _configName = configName;
+    _typeEngine = typeEngine;
+  }
+
+  /*Name used for this kind in configuration keys, e.g. tora.engine.template.optimisticTypes*/
+  public String getConfigName()
+  {
+    return _configName;
+  }
+
+  /*Whether engines of this kind evaluate the generated code of javascript types*/
+  public boolean isTypeEngine()
+  {
+    return _typeEngine;
+  }
+}
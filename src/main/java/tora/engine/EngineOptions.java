@@ -0,0 +1,118 @@
+package tora.engine;
+
+import gw.util.concurrent.LockingLazyVar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/*Central engine configuration. Settings are read from system properties, then from a tora.properties resource on
+ *the classpath. Each setting can be given for one kind of engine, e.g. tora.engine.template.lazyCompilation, or for
+ *all kinds, e.g. tora.engine.lazyCompilation; the kind-specific key wins. Unset settings keep nashorn's defaults.
+ *
+ *  optimisticTypes  - true/false, better peak performance for longer warm-up
+ *  lazyCompilation  - true/false, compile functions on first call instead of all at once
+ *  classCacheSize   - number of compiled classes an engine caches per source
+ *  strict           - true/false, evaluate in ES5 strict mode
+ *  sharedPerModule  - true/false, run all javascript types of a module on one engine, each type in its own
+ *                     global scope, instead of one engine per type
+ *  rebindFunctions  - true/false, look up a type's top level functions on every call instead of once, for code
+ *                     that reassigns them
+ */
+public class EngineOptions
+{
+  public static final String RESOURCE = "tora.properties";
+  public static final String PREFIX = "tora.engine.";
+
+  public static final String OPTIMISTIC_TYPES = "optimisticTypes";
+  public static final String LAZY_COMPILATION = "lazyCompilation";
+  public static final String CLASS_CACHE_SIZE = "classCacheSize";
+  public static final String STRICT = "strict";
+  public static final String SHARED_PER_MODULE = "sharedPerModule";
+  public static final String REBIND_FUNCTIONS = "rebindFunctions";
+
+  private static final LockingLazyVar<Properties> RESOURCE_PROPERTIES = new LockingLazyVar<Properties>()
+  {
+    @Override
+    protected Properties init()
+    {
+      Properties properties = new Properties();
+      try( InputStream in = EngineOptions.class.getClassLoader().getResourceAsStream( RESOURCE ) )
+      {
+        if( in != null )
+        {
+          properties.load( in );
+        }
+      }
+      catch( IOException e )
+      {
+        throw new IllegalStateException( "Could not read " + RESOURCE, e );
+      }
+      return properties;
+    }
+  };
+
+  /*Returns the value of a setting under the given prefix, preferring the kind-specific key*/
+  public static String get( String prefix, EngineKind kind, String name )
+  {
+    String value = get( prefix + kind.getConfigName() + "." + name );
+    return value != null ? value : get( prefix + name );
+  }
+
+  public static int getInt( String prefix, EngineKind kind, String name, int defaultValue )
+  {
+    String value = get( prefix, kind, name );
+    return value == null ? defaultValue : Integer.parseInt( value.trim() );
+  }
+
+  private static String get( String key )
+  {
+    String value = System.getProperty( key );
+    return value != null ? value : RESOURCE_PROPERTIES.get().getProperty( key );
+  }
+
+  public static boolean isSharedPerModule( EngineKind kind )
+  {
+    return Boolean.parseBoolean( get( PREFIX, kind, SHARED_PER_MODULE ) );
+  }
+
+  public static boolean isRebindFunctions( EngineKind kind )
+  {
+    return Boolean.parseBoolean( get( PREFIX, kind, REBIND_FUNCTIONS ) );
+  }
+
+  /*Builds the nashorn command line options for engines of the given kind*/
+  public static String[] forKind( EngineKind kind )
+  {
+    List<String> options = new ArrayList<>();
+    String optimisticTypes = get( PREFIX, kind, OPTIMISTIC_TYPES );
+    if( optimisticTypes != null )
+    {
+      options.add( "--optimistic-types=" + Boolean.parseBoolean( optimisticTypes.trim() ) );
+    }
+    String lazyCompilation = get( PREFIX, kind, LAZY_COMPILATION );
+    if( lazyCompilation != null )
+    {
+      options.add( "--lazy-compilation=" + Boolean.parseBoolean( lazyCompilation.trim() ) );
+    }
+    String classCacheSize = get( PREFIX, kind, CLASS_CACHE_SIZE );
+    if( classCacheSize != null )
+    {
+      options.add( "--class-cache-size=" + Integer.parseInt( classCacheSize.trim() ) );
+    }
+    if( Boolean.parseBoolean( get( PREFIX, kind, STRICT ) ) )
+    {
+      options.add( "-strict" );
+    }
+    if( kind.isTypeEngine() )
+    {
+      for( String option : CodeCache.engineOptions() )
+      {
+        options.add( option );
+      }
+    }
+    return options.toArray( new String[options.size()] );
+  }
+}
@@ -0,0 +1,159 @@
+package tora.engine;
+
+import javax.script.ScriptEngine;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*Supply of pre-created engines. A background thread keeps minIdle engines ready or under construction, so callers
+ *don't pay for engine creation on their critical path. A borrowed engine belongs to the borrower; engines carry
+ *global state, so they are never given back and the number handed out is not bounded.
+ *There is one shared supply per kind of engine, sized by the tora.engineSupply.minIdle setting, which like the
+ *engine options can be given per kind (see EngineOptions)*/
+public class EngineSupply
+{
+  public static final String SUPPLY_PREFIX = "tora.engineSupply.";
+  public static final int DEFAULT_MIN_IDLE = 1;
+  //how long a borrower waits for an engine under construction before creating one itself
+  private static final long MAX_WAIT_MILLIS = 5000;
+
+  private static final Map<EngineKind, EngineSupply> SUPPLIES = new EnumMap<>( EngineKind.class );
+
+  private final int _minIdle;
+  private final String[] _options;
+  private final LinkedBlockingQueue<ScriptEngine> _idle = new LinkedBlockingQueue<>();
+  private final ExecutorService _creator;
+  private int _creating;
+
+  private final AtomicLong _created = new AtomicLong();
+  private final AtomicLong _borrows = new AtomicLong();
+  private final AtomicLong _borrowWaitNanos = new AtomicLong();
+  private final AtomicLong _maxBorrowWaitNanos = new AtomicLong();
+
+  public EngineSupply( int minIdle, String... options )
+  {
+    if( minIdle < 0 )
+    {
+      throw new IllegalArgumentException( "Invalid minIdle: " + minIdle );
+    }
+    _minIdle = minIdle;
+    _options = options;
+    _creator = Executors.newSingleThreadExecutor( r -> {
+      Thread thread = new Thread( r, "tora-engine-supply" );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    replenish();
+  }
+
+  /*Returns the supply for the given kind of engine, creating it with the configured options and size*/
+  public static EngineSupply forKind( EngineKind kind )
+  {
+    synchronized( SUPPLIES )
+    {
+      return SUPPLIES.computeIfAbsent( kind, k -> new EngineSupply(
+        EngineOptions.getInt( SUPPLY_PREFIX, k, "minIdle", DEFAULT_MIN_IDLE ),
+        EngineOptions.forKind( k ) ) );
+    }
+  }
+
+  public ScriptEngine borrow()
+  {
+    long start = System.nanoTime();
+    ScriptEngine engine = _idle.poll();
+    replenish();
+    if( engine == null && isCreating() )
+    {
+      try
+      {
+        engine = _idle.poll( MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS );
+      }
+      catch( InterruptedException e )
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if( engine == null )
+    {
+      //nothing under construction (or it took too long), so create one on the caller's thread
+      engine = EngineFactory.newEngine( _options );
+      _created.incrementAndGet();
+    }
+    long wait = System.nanoTime() - start;
+    _borrows.incrementAndGet();
+    _borrowWaitNanos.addAndGet( wait );
+    _maxBorrowWaitNanos.accumulateAndGet( wait, Math::max );
+    return engine;
+  }
+
+  /*Schedules background creation until minIdle engines are idle or under construction*/
+  private synchronized void replenish()
+  {
+    while( _idle.size() + _creating < _minIdle )
+    {
+      _creating++;
+      _creator.execute( () -> {
+        try
+        {
+          ScriptEngine engine = EngineFactory.newEngine( _options );
+          _created.incrementAndGet();
+          _idle.add( engine );
+        }
+        finally
+        {
+          creationDone();
+        }
+      } );
+    }
+  }
+
+  private synchronized boolean isCreating()
+  {
+    return _creating > 0;
+  }
+
+  private synchronized void creationDone()
+  {
+    _creating--;
+  }
+
+  public int getMinIdle()
+  {
+    return _minIdle;
+  }
+
+  public int getIdleCount()
+  {
+    return _idle.size();
+  }
+
+  public synchronized int getCreatingCount()
+  {
+    return _creating;
+  }
+
+  /*Total engines created by this supply, in the background or on a borrower's thread*/
+  public long getCreatedCount()
+  {
+    return _created.get();
+  }
+
+  public long getBorrowCount()
+  {
+    return _borrows.get();
+  }
+
+  public long getTotalBorrowWaitNanos()
+  {
+    return _borrowWaitNanos.get();
+  }
+
+  public long getMaxBorrowWaitNanos()
+  {
+    return _maxBorrowWaitNanos.get();
+  }
+}
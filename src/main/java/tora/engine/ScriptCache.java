@@ -0,0 +1,123 @@
+package tora.engine;
+
+import gw.util.concurrent.LockingLazyVar;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*Bounded LRU cache of compiled scripts keyed by source text. The size of the shared cache is read from the
+ *tora.scriptCache.size system property*/
+public class ScriptCache
+{
+  public static final String SIZE_PROPERTY = "tora.scriptCache.size";
+  public static final int DEFAULT_SIZE = 256;
+
+  private static final LockingLazyVar<ScriptCache> SHARED = new LockingLazyVar<ScriptCache>()
+  {
+    @Override
+    protected ScriptCache init()
+    {
+      return new ScriptCache( EngineFactory.getSharedEngine(), Integer.getInteger( SIZE_PROPERTY, DEFAULT_SIZE ) );
+    }
+  };
+
+  private final Compilable _compiler;
+  private final int _maxSize;
+  private final Map<String, CompiledScript> _scripts;
+  private final AtomicLong _hits = new AtomicLong();
+  private final AtomicLong _misses = new AtomicLong();
+  private final AtomicLong _evictions = new AtomicLong();
+
+  public ScriptCache( ScriptEngine engine, int maxSize )
+  {
+    if( maxSize < 1 )
+    {
+      throw new IllegalArgumentException( "Cache size must be positive: " + maxSize );
+    }
+    _compiler = (Compilable)engine;
+    _maxSize = maxSize;
+    //access ordered, so the eldest entry is the least recently used one
+    _scripts = new LinkedHashMap<String, CompiledScript>( 16, 0.75f, true )
+    {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, CompiledScript> eldest )
+      {
+        if( size() > _maxSize )
+        {
+          _evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public static ScriptCache getShared()
+  {
+    return SHARED.get();
+  }
+
+  /*Returns the compiled form of src, compiling it on a miss. Compilation happens outside the lock so a slow
+   *compile does not block lookups of other scripts*/
+  public CompiledScript get( String src ) throws ScriptException
+  {
+    CompiledScript script;
+    synchronized( _scripts )
+    {
+      script = _scripts.get( src );
+    }
+    if( script != null )
+    {
+      _hits.incrementAndGet();
+      return script;
+    }
+    _misses.incrementAndGet();
+    CompiledScript compiled = _compiler.compile( src );
+    synchronized( _scripts )
+    {
+      script = _scripts.putIfAbsent( src, compiled );
+    }
+    return script == null ? compiled : script;
+  }
+
+  public void clear()
+  {
+    synchronized( _scripts )
+    {
+      _scripts.clear();
+    }
+  }
+
+  public int size()
+  {
+    synchronized( _scripts )
+    {
+      return _scripts.size();
+    }
+  }
+
+  public int getMaxSize()
+  {
+    return _maxSize;
+  }
+
+  public long getHits()
+  {
+    return _hits.get();
+  }
+
+  public long getMisses()
+  {
+    return _misses.get();
+  }
+
+  public long getEvictions()
+  {
+    return _evictions.get();
+  }
+}
@@ -0,0 +1,105 @@
+package tora.engine;
+
+import gw.util.GosuExceptionUtil;
+import gw.util.concurrent.LockingLazyVar;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Bounded executor for asynchronous script evaluation. Every worker thread owns a warm engine and its own
+ *compiled copies of the scripts it runs, so workers never contend on an engine. The pool size and queue size
+ *are read from the tora.async.threads and tora.async.queueSize system properties. When the queue is full new
+ *evaluations are rejected rather than run on the submitting thread, which is the thread asynchronous evaluation
+ *is meant to keep free; JS.evalAsync reports the rejection through the returned future*/
+public class ScriptExecutor
+{
+  public static final String THREADS_PROPERTY = "tora.async.threads";
+  public static final String QUEUE_SIZE_PROPERTY = "tora.async.queueSize";
+  public static final int DEFAULT_QUEUE_SIZE = 1024;
+  //compiled scripts kept per worker
+  private static final int WORKER_CACHE_SIZE = 64;
+
+  private static final LockingLazyVar<ExecutorService> SHARED = new LockingLazyVar<ExecutorService>()
+  {
+    @Override
+    protected ExecutorService init()
+    {
+      return newExecutor( Integer.getInteger( THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() ),
+                          Integer.getInteger( QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE ) );
+    }
+  };
+
+  public static ExecutorService getShared()
+  {
+    return SHARED.get();
+  }
+
+  /*Creates an executor of script workers. Workers start right away so their engines are warm before the first
+   *evaluation arrives*/
+  public static ExecutorService newExecutor( int threads, int queueSize )
+  {
+    AtomicInteger count = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 0, TimeUnit.MILLISECONDS,
+                                                          new ArrayBlockingQueue<>( queueSize ),
+                                                          r -> new Worker( r, "tora-script-" + count.incrementAndGet() ),
+                                                          new ThreadPoolExecutor.AbortPolicy() );
+    executor.prestartAllCoreThreads();
+    return executor;
+  }
+
+  /*Returns the worker running on the current thread, or null if the current thread is not a script worker*/
+  public static Worker currentWorker()
+  {
+    Thread thread = Thread.currentThread();
+    return thread instanceof Worker ? (Worker)thread : null;
+  }
+
+  public static class Worker extends Thread
+  {
+    private ScriptEngine _engine;
+    private ScriptCache _scripts;
+
+    Worker( Runnable task, String name )
+    {
+      super( task, name );
+      setDaemon( true );
+    }
+
+    @Override
+    public void run()
+    {
+      _engine = EngineSupply.forKind( EngineKind.SCRIPT ).borrow();
+      _scripts = new ScriptCache( _engine, WORKER_CACHE_SIZE );
+      super.run();
+    }
+
+    /*Evaluates src with this worker's engine in a fresh global scope holding the params, so jobs never see each
+     *other's variables*/
+    public Object eval( String src, Bindings params )
+    {
+      Bindings global = _engine.createBindings();
+      if( params != null )
+      {
+        global.putAll( params );
+      }
+      ScriptContext context = new SimpleScriptContext();
+      context.setBindings( global, ScriptContext.ENGINE_SCOPE );
+      try
+      {
+        return _scripts.get( src ).eval( context );
+      }
+      catch( ScriptException e )
+      {
+        throw GosuExceptionUtil.forceThrow( e );
+      }
+    }
+  }
+}
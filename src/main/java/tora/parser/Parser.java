@@ -1,8 +1,5 @@
 package tora.parser;
 
-import gw.lang.reflect.IMethodInfo;
-import gw.lang.reflect.IType;
-import gw.lang.reflect.TypeSystem;
 import tora.parser.tree.*;
 import tora.parser.tree.template.JSTNode;
 
@@ -13,12 +10,19 @@ public class Parser
   private Tokenizer _tokenizer;
   private Tokenizer.Token _currentToken, _nextToken;
   private ParseContext _context;
+  private SupertypeLookup _supertypes;
 
   //Constructor sets the src from which the parser reads
   public Parser(Tokenizer tokenizer){
+    this(tokenizer, SupertypeLookup.NONE);
+  }
+
+  //Supertypes are looked up to find which functions of a class override methods of the class it extends
+  public Parser(Tokenizer tokenizer, SupertypeLookup supertypes){
     _tokenizer = tokenizer;
     _programNode = new ProgramNode();
     _context = new ParseContext();
+    _supertypes = supertypes;
   }
 
   public boolean isES6Class() {
@@ -55,6 +59,15 @@ public class Parser
         _classNode.setSuperClass(_currentToken.getValue());
         skip(match(TokenType.IDENTIFIER));
       }
+      //parse any implemented interfaces
+      if(matchClassKeyword("implements")) {
+        skip(matchClassKeyword("implements"));
+        parseInterface();
+        while (match(',')) {
+          nextToken();
+          parseInterface();
+        }
+      }
       //parse class body
       skip(match('{'));
       parseClassBody(className.getValue());
@@ -64,6 +77,16 @@ public class Parser
     }
   }
 
+  /*Interfaces must be imported, the generated code implements them with their imported java types*/
+  private void parseInterface() {
+    String interfaceName = _currentToken.getValue();
+    if (_programNode.getPackageFromClassName(interfaceName) == null) {
+      error("Implemented interface is not imported: " + interfaceName);
+    }
+    _classNode.addInterface(interfaceName);
+    skip(match(TokenType.IDENTIFIER));
+  }
+
   private void parseImports() {
     while (matchKeyword("import") && !match(TokenType.EOF)) {
       _programNode.addChild(parseImport());
@@ -214,7 +237,7 @@ public class Parser
   private String parseReturnType() {
     if(_currentToken.getValue().equals(":")) {
       nextToken();
-        String returnType = _currentToken.getValue();
+        String returnType = parseTypeName();
         nextToken();
         return returnType;
     }
@@ -231,12 +254,41 @@ public class Parser
     if(peekToken().getValue().equals(":")) {
       nextToken();
       nextToken();
-      return _currentToken.getValue();
+      return parseTypeName();
     }
     return null;
 
   }
 
+  /* Function: parseTypeName()
+     ---------------------------
+     Reads a type name starting at the current token, which may be qualified, such as tora.Foo, and may be an
+     array type; leaves the last token of the name as the current token
+   */
+  private String parseTypeName() {
+    String type = _currentToken.getValue();
+    while (peekToken().getValue().equals(".")) {
+      nextToken();
+      nextToken();
+      type += "." + _currentToken.getValue();
+    }
+    while (peekToken().getValue().equals("[")) {
+      type += parseArrayBrackets();
+    }
+    return type;
+  }
+
+  /* Function: parseArrayBrackets()
+     ------------------------------
+     Moves past the [] following an array type, such as double[], and leaves the closing bracket as the current token
+   */
+  private String parseArrayBrackets() {
+    nextToken();
+    nextToken();
+    expect(match(']'));
+    return "[]";
+  }
+
   private FunctionBodyNode parseFunctionBody(String functionName) {
     FunctionBodyNode bodyNode = new FunctionBodyNode(functionName);
     int currCurlyCount = _context.getCurlyCount() - 1;
@@ -403,12 +455,7 @@ public class Parser
     if (_classNode == null) return false;
     String packageName = _programNode.getPackageFromClassName(_classNode.getSuperClass());
     if (packageName == null) return false;
-    IType superType = TypeSystem.getByFullName(packageName);
-    if (superType == null) return false;
-    for (IMethodInfo method : superType.getTypeInfo().getMethods()) {
-      if (method.getDisplayName().equals(functionName)) return true;
-    }
-    return false;
+    return _supertypes.hasMethod(packageName, functionName);
   }
 
   /*Move current token to the next token (including whitespace)*/
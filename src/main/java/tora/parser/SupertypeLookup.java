@@ -0,0 +1,12 @@
+package tora.parser;
+
+/*Tells the parser which methods a class's java supertype has, so functions of the same name are parsed as overrides.
+ *The parser knows nothing of the type system, the plugin gives it a lookup backed by its types*/
+@FunctionalInterface
+public interface SupertypeLookup {
+    //Used when no types are available; no function is an override
+    SupertypeLookup NONE = (supertypeName, methodName) -> false;
+
+    /*Returns true if the type with the given full name exists and has a method of the given name*/
+    boolean hasMethod(String supertypeName, String methodName);
+}
@@ -21,10 +21,29 @@ public class ClassNode extends Node {
         "if (!(instance instanceof Constructor)) { " +
         "throw new TypeError(\"Cannot call a class as a function\") } }\n";
 
+    //Binds an instance's functions and a class's overrides to the instance, as the implementation given to the
+    //adapter of a class that extends and implements java types
+    private static final String IMPLEMENT = "function _implement(instance, overrides) { " +
+        "var implementation = {}; " +
+        "for (var name in instance) if (typeof instance[name] === 'function') " +
+        "implementation[name] = instance[name].bind(instance); " +
+        "for (var name in overrides) implementation[name] = overrides[name].bind(instance); " +
+        "implementation._getScriptObject = function() { return instance; }; return implementation; }";
+
     //name of generated supertype object
     public static final String SUPERTYPE_OBJECT = "_superClassObject";
+    //name of the adapter class extending the supertype, created once when the class is defined
+    public static final String SUPERTYPE_ADAPTER = "_superClassAdapter";
+    //name of the Java.super reference to the supertype object, bound once per instance
+    public static final String SUPER_REFERENCE = "_superReference";
+    //name of the adapter class implementing the class's java interfaces, and of the per instance java object
+    public static final String INTERFACE_ADAPTER = "_interfaceAdapter";
+    public static final String INTERFACE_OBJECT = "_interfaceObject";
+    //marker interface of interface objects, which return their javascript object from _getScriptObject
+    public static final String JAVASCRIPT_OBJECT = "tora.plugin.JavascriptObject";
 
     private String _superClass = null;
+    private List<String> _interfaces = new ArrayList<>();
 
     public ClassNode(String name ) {
         super(name);
@@ -42,6 +61,13 @@ public class ClassNode extends Node {
         return  _superClass;
     }
 
+    public void addInterface(String interfaceName) {
+        _interfaces.add(interfaceName);
+    }
+    public List<String> getInterfaces() {
+        return _interfaces;
+    }
+
 
     @Override
     public String genCode() {
@@ -52,6 +78,28 @@ public class ClassNode extends Node {
                 .append((getSuperClass() == null? "" : "_" + getSuperClass()))
                 .append(") { ");
 
+        /*Extend the superclass once, when the class is defined. Overrides that use this or super need their own
+         *instance, so they are given per object; all others are class level and instances only instantiate*/
+        List<ClassFunctionNode> overrides = getChildren(ClassFunctionNode.class).stream()
+                .filter(node -> node.isOverride())
+                .collect(Collectors.toList());
+        boolean instanceOverrides = overrides.stream().anyMatch(node -> referencesInstance(node));
+        /*A class that extends a java type and implements interfaces has a single java object, which must be an
+         *instance of both, so the supertype adapter implements the interfaces*/
+        boolean extendsAndImplements = getSuperClass() != null && !_interfaces.isEmpty();
+        if (getSuperClass() != null) {
+            code.append("\n\tvar ").append(SUPERTYPE_ADAPTER).append(" = Java.extend(_").append(getSuperClass());
+            if (extendsAndImplements) code.append(", ").append(genInterfaceList());
+            else if (!instanceOverrides) code.append(", {").append(genOverrideFunctionCode(overrides)).append("}");
+            code.append(");");
+        }
+        //Implement the java interfaces once as well, instances are passed to the adapter as their implementation
+        else if (!_interfaces.isEmpty()) {
+            code.append("\n\tvar ").append(INTERFACE_ADAPTER).append(" = Java.extend(")
+                    .append(genInterfaceList()).append(");");
+        }
+        if (extendsAndImplements) code.append("\n\t").append(IMPLEMENT);
+
         String constructorCode;
         if (getChildren(ConstructorNode.class).isEmpty()) {
             //Gen default constructor if no child found
@@ -64,17 +112,37 @@ public class ClassNode extends Node {
         //If superclass exists, instantiate superclass object inside constructor
         if (getSuperClass() != null) {
             StringBuilder superClassObjectCode = new StringBuilder();
-            String superClassArg = "_" + getSuperClass();
             //Create extended superclass object
             superClassObjectCode.append("\n\tvar ").append(SUPERTYPE_OBJECT)
-                    .append("= new (Java.extend(").append(superClassArg).append("))(){")
-                    .append(genOverrideFunctionCode(getChildren(ClassFunctionNode.class))) //Add overridden methods
-                    .append("};");
-            //Create property reference for the superclass object
+                    .append("= new ").append(SUPERTYPE_ADAPTER);
+            if (extendsAndImplements) {
+                //The instance's functions implement the interfaces, along with the overrides
+                superClassObjectCode.append("(_implement(this, {").append(genOverrideFunctionCode(overrides))
+                        .append("}))");
+            } else {
+                superClassObjectCode.append("()");
+                if (instanceOverrides) superClassObjectCode.append("{").append(genOverrideFunctionCode(overrides)).append("}");
+            }
+            superClassObjectCode.append(";");
+            superClassObjectCode.append("\n\tvar ").append(SUPER_REFERENCE)
+                    .append(" = Java.super(").append(SUPERTYPE_OBJECT).append(");");
+            //Create property references for the superclass object and its super reference
             superClassObjectCode.append("\n\t").append("this.").append(SUPERTYPE_OBJECT)
                     .append(" = ").append(SUPERTYPE_OBJECT).append(";");
+            superClassObjectCode.append("\n\t").append("this.").append(SUPER_REFERENCE)
+                    .append(" = ").append(SUPER_REFERENCE).append(";");
+            //The supertype object is also the java object implementing the interfaces
+            if (extendsAndImplements) {
+                superClassObjectCode.append("\n\t").append("this.").append(INTERFACE_OBJECT)
+                        .append(" = ").append(SUPERTYPE_OBJECT).append(";");
+            }
             constructorCode = constructorCode.replaceFirst("[{]", "{" + superClassObjectCode.toString());
         }
+        //Create the java object implementing the interfaces with this instance's functions
+        if (!_interfaces.isEmpty() && getSuperClass() == null) {
+            String interfaceObjectCode = "\n\tthis." + INTERFACE_OBJECT + " = new " + INTERFACE_ADAPTER + "(this);";
+            constructorCode = constructorCode.replaceFirst("[{]", "{" + interfaceObjectCode);
+        }
         code.append(constructorCode);
 
         //Create method for getting super object
@@ -83,6 +151,12 @@ public class ClassNode extends Node {
                     "return this._superClassObject}");
         }
 
+        //Create method for getting the javascript object back from the interface object
+        if (!_interfaces.isEmpty()) {
+            code.append("\n\t").append(getName()).append(".prototype._getScriptObject = function _getScriptObject(){" +
+                    "return this}");
+        }
+
         for (ClassFunctionNode node : getChildren(ClassFunctionNode.class)) {
             if (!node.isOverride()) code.append("\n\t").append(node.genCode());
         }
@@ -96,6 +170,18 @@ public class ClassNode extends Node {
         return code.toString();
     }
 
+    private static boolean referencesInstance(Node node) {
+        if (node instanceof FillerNode) {
+            FillerNode filler = (FillerNode) node;
+            if (filler.hasKeyword("this") || filler.hasKeyword("super")) return true;
+        }
+        return node.getChildren().stream().anyMatch(child -> referencesInstance(child));
+    }
+
+    private String genInterfaceList() {
+        return String.join(", ", _interfaces) + ", Java.type('" + JAVASCRIPT_OBJECT + "')";
+    }
+
     private String genOverrideFunctionCode(List<ClassFunctionNode> functionNodes) {
         return String.join(",", functionNodes.stream()
                 .filter(node -> node.isOverride())
@@ -49,16 +49,23 @@ public class FillerNode extends Node
     return toke;
   }
 
+  public boolean hasKeyword(String keyword) {
+    for (Tokenizer.Token token : _tokens) {
+      if (token.getType() == TokenType.KEYWORD && token.getValue().equals(keyword)) return true;
+    }
+    return false;
+  }
+
   @Override
   public String genCode()
   {
     if (_content != null) return _content;
     StringBuilder code = new StringBuilder();
     for (Tokenizer.Token token : _tokens) {
-      //Replace super with Java.super(_superClassObject) to support java-style super
+      //Replace super with the Java.super reference the constructor binds, to support java-style super
       if (token.getType() == TokenType.KEYWORD && token.getValue().equals("super")) {
-        //needs "this._superClassObject" to reference super if not function does not override
-        code.append("Java.super(" + (_inOverrideFunction?"":"this.") + ClassNode.SUPERTYPE_OBJECT + ")");
+        //needs "this._superReference" to reference super if function does not override
+        code.append((_inOverrideFunction?"":"this.") + ClassNode.SUPER_REFERENCE);
       } else {
         code.append(token.getValue());
       }
@@ -0,0 +1,195 @@
+package tora.plugin;
+
+import gw.lang.reflect.IExpando;
+import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*A javascript object returned to Gosu as a dynamic value. Gosu reads and writes its members as fields and calls its
+ *functions through invoke. Nested objects are wrapped as they are read, and the wrapper is unwrapped again when it is
+ *passed back to javascript. getMap() is a view over the object's own enumerable members, whose names are read again
+ *each time the map is sized or iterated*/
+public class ExpandoWrapper implements IExpando
+{
+  private final ScriptObjectMirror _mirror;
+  private Map<String, Object> _map;
+
+  private ExpandoWrapper( ScriptObjectMirror mirror )
+  {
+    _mirror = mirror;
+  }
+
+  /*Wraps plain javascript objects and turns undefined into null; arrays, functions and everything else are returned
+   *as they are*/
+  public static Object wrap( Object o )
+  {
+    if( ScriptObjectMirror.isUndefined( o ) )
+    {
+      return null;
+    }
+    if( o instanceof ScriptObjectMirror )
+    {
+      ScriptObjectMirror mirror = (ScriptObjectMirror)o;
+      if( !mirror.isArray() && !mirror.isFunction() )
+      {
+        return new ExpandoWrapper( mirror );
+      }
+    }
+    return o;
+  }
+
+  /*Returns the javascript object of a wrapper, and anything else as it is*/
+  public static Object unwrap( Object o )
+  {
+    return o instanceof ExpandoWrapper ? ((ExpandoWrapper)o)._mirror : o;
+  }
+
+  public ScriptObjectMirror getMirror()
+  {
+    return _mirror;
+  }
+
+  @Override
+  public Object getFieldValue( String field )
+  {
+    //java objects written with setFieldValue are stored as views
+    return wrap( JavaObjectView.unwrap( _mirror.getMember( field ) ) );
+  }
+
+  @Override
+  public void setFieldValue( String field, Object value )
+  {
+    _mirror.setMember( field, JavaObjectView.wrap( value ) );
+  }
+
+  @Override
+  public void setDefaultFieldValue( String field )
+  {
+    // ignore
+  }
+
+  @Override
+  public Object invoke( String methodName, Object... args )
+  {
+    Object[] jsArgs = args.clone();
+    for( int i = 0; i < jsArgs.length; i++ )
+    {
+      jsArgs[i] = JavaObjectView.wrap( jsArgs[i] );
+    }
+    return wrap( JavaObjectView.unwrap( _mirror.callMember( methodName, jsArgs ) ) );
+  }
+
+  @Override
+  public Map getMap()
+  {
+    if( _map == null )
+    {
+      _map = new MirrorMap();
+    }
+    return _map;
+  }
+
+  @Override
+  public boolean equals( Object o )
+  {
+    return o instanceof ExpandoWrapper && _mirror.equals( ((ExpandoWrapper)o)._mirror );
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return _mirror.hashCode();
+  }
+
+  @Override
+  public String toString()
+  {
+    return _mirror.toString();
+  }
+
+  private class MirrorMap extends AbstractMap<String, Object>
+  {
+    //Object.prototype.propertyIsEnumerable of the object's global, which tells own enumerable members apart
+    private JSObject _isOwnEnumerable;
+
+    private List<String> keys()
+    {
+      return Arrays.asList( _mirror.getOwnKeys( false ) );
+    }
+
+    @Override
+    public Object get( Object key )
+    {
+      return containsKey( key ) ? getFieldValue( (String)key ) : null;
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+      if( !(key instanceof String) || !_mirror.hasMember( (String)key ) )
+      {
+        return false;
+      }
+      if( _isOwnEnumerable == null )
+      {
+        _isOwnEnumerable = (JSObject)_mirror.eval( "Object.prototype.propertyIsEnumerable" );
+      }
+      return (Boolean)_isOwnEnumerable.call( _mirror, key );
+    }
+
+    @Override
+    public Object put( String key, Object value )
+    {
+      Object previous = get( key );
+      setFieldValue( key, value );
+      return previous;
+    }
+
+    @Override
+    public int size()
+    {
+      return keys().size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+      return new AbstractSet<Entry<String, Object>>()
+      {
+        @Override
+        public Iterator<Entry<String, Object>> iterator()
+        {
+          Iterator<String> keys = keys().iterator();
+          return new Iterator<Entry<String, Object>>()
+          {
+            @Override
+            public boolean hasNext()
+            {
+              return keys.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next()
+            {
+              String key = keys.next();
+              return new SimpleImmutableEntry<>( key, getFieldValue( key ) );
+            }
+          };
+        }
+
+        @Override
+        public int size()
+        {
+          return keys().size();
+        }
+      };
+    }
+  }
+}
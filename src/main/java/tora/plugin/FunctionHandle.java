@@ -0,0 +1,32 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.JSObject;
+
+/*A top level function of a javascript type. The function object is looked up once, after the type's code is
+ *evaluated, and then called directly. Types that reassign their global functions can rebind, which looks the
+ *function up again on every call*/
+class FunctionHandle
+{
+  private final JavascriptRuntime _runtime;
+  private final String _name;
+  private final boolean _rebind;
+  private volatile JSObject _function;
+
+  FunctionHandle( JavascriptRuntime runtime, String name, boolean rebind )
+  {
+    _runtime = runtime;
+    _name = name;
+    _rebind = rebind;
+  }
+
+  JSObject get()
+  {
+    JSObject function = _function;
+    if( function == null || _rebind )
+    {
+      function = (JSObject)_runtime.get( _name );
+      _function = function;
+    }
+    return function;
+  }
+}
@@ -0,0 +1,125 @@
+package tora.plugin;
+
+import gw.lang.reflect.IConstructorInfo;
+import gw.lang.reflect.IParameterInfo;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.ITypeInfo;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import jdk.internal.dynalink.beans.StaticClass;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import tora.parser.tree.ImportNode;
+import tora.parser.tree.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*An imported Gosu class as seen from javascript. Static members are resolved through the class's type info like the
+ *members of a GosuObjectView, and new picks a constructor by its parameter types; the objects it creates are seen
+ *as GosuObjectViews.
+ *
+ *Imports are evaluated as Java.type(...), which classes extend and implement when they are defined. The imports of
+ *Gosu classes are replaced by views after the code has been evaluated, so later calls go through the view. Imported
+ *java classes are left to nashorn's bean linker*/
+public class GosuClassView extends JavaObjectView
+{
+  private final IGosuClass _type;
+  private final Map<String, GosuObjectView.Member> _members = new ConcurrentHashMap<>();
+  private final IConstructorInfo[] _constructors;
+  private final GosuOverloads _overloads;
+
+  GosuClassView( IGosuClass type )
+  {
+    _type = type;
+    List<? extends IConstructorInfo> constructors = type.getTypeInfo().getConstructors();
+    _constructors = constructors.toArray( new IConstructorInfo[constructors.size()] );
+    List<IParameterInfo[]> parameters = new ArrayList<>();
+    for( IConstructorInfo constructor : _constructors )
+    {
+      parameters.add( constructor.getParameters() );
+    }
+    _overloads = new GosuOverloads( "constructor of " + type.getName(), parameters );
+  }
+
+  /*Replaces the imports of Gosu classes in a type's global scope with views*/
+  static void replaceImports( ScriptObjectMirror global, Node node )
+  {
+    for( ImportNode importNode : node.getChildren( ImportNode.class ) )
+    {
+      IType type = TypeSystem.getByFullNameIfValid( importNode.getName() );
+      if( type instanceof IGosuClass )
+      {
+        global.put( importNode.getPackageClass(), new GosuClassView( (IGosuClass)type ) );
+      }
+    }
+  }
+
+  /*The class as Java.type(...) returns it*/
+  @Override
+  public Object getObject()
+  {
+    return StaticClass.forClass( _type.getBackingClass() );
+  }
+
+  @Override
+  public Object getMember( String name )
+  {
+    return JavaObjectView.wrap( member( name ).get( null ) );
+  }
+
+  @Override
+  public void setMember( String name, Object value )
+  {
+    GosuObjectView.Member member = member( name );
+    if( member == GosuObjectView.NO_MEMBER )
+    {
+      throw new IllegalArgumentException( "No static property " + name + " on " + getClassName() );
+    }
+    member.set( null, JavaObjectView.unwrap( value ) );
+  }
+
+  @Override
+  public boolean hasMember( String name )
+  {
+    return member( name ) != GosuObjectView.NO_MEMBER;
+  }
+
+  @Override
+  public Object newObject( Object... args )
+  {
+    int constructor = _overloads.select( args );
+    return JavaObjectView.wrap( _constructors[constructor].getConstructor()
+                                  .newInstance( _overloads.coerce( constructor, args ) ) );
+  }
+
+  @Override
+  public boolean isInstance( Object instance )
+  {
+    return _type.getBackingClass().isInstance( JavaObjectView.unwrap( instance ) );
+  }
+
+  @Override
+  public boolean isFunction()
+  {
+    return true;
+  }
+
+  @Override
+  public String getClassName()
+  {
+    return _type.getName();
+  }
+
+  private GosuObjectView.Member member( String name )
+  {
+    GosuObjectView.Member member = _members.get( name );
+    if( member == null )
+    {
+      ITypeInfo typeInfo = _type.getTypeInfo();
+      member = _members.computeIfAbsent( name, key -> GosuObjectView.resolve( typeInfo, key, true ) );
+    }
+    return member;
+  }
+}
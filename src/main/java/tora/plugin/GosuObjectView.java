@@ -0,0 +1,235 @@
+package tora.plugin;
+
+import gw.lang.reflect.IMethodInfo;
+import gw.lang.reflect.IParameterInfo;
+import gw.lang.reflect.IPropertyAccessor;
+import gw.lang.reflect.IPropertyInfo;
+import gw.lang.reflect.ITypeInfo;
+import gw.lang.reflect.gs.IGosuObject;
+import gw.util.GosuExceptionUtil;
+import jdk.nashorn.api.scripting.AbstractJSObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*A Gosu object as seen from javascript. Nashorn's bean linker only knows the members of the object's java class, and
+ *resolves overloads reflectively at each new call site; this view resolves members through the object's type info,
+ *so enhancement methods and Gosu properties are visible too. Each member is resolved once per class and name, then
+ *shared by every view of that class, and a method picks its overload once per signature of argument classes.
+ *
+ *Nashorn in java 8 only loads dynamic linkers visible to its own class loader, so Gosu objects are wrapped in views
+ *instead of being linked*/
+public class GosuObjectView extends JavaObjectView
+{
+  static final Member NO_MEMBER = new Member()
+  {
+    @Override
+    public Object get( Object target )
+    {
+      return UNDEFINED;
+    }
+
+    @Override
+    public void set( Object target, Object value )
+    {
+    }
+  };
+
+  private static final ClassValue<Map<String, Member>> MEMBERS = new ClassValue<Map<String, Member>>()
+  {
+    @Override
+    protected Map<String, Member> computeValue( Class<?> type )
+    {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private final IGosuObject _object;
+  private final Map<String, Member> _members;
+
+  GosuObjectView( IGosuObject object )
+  {
+    _object = object;
+    _members = MEMBERS.get( object.getClass() );
+  }
+
+  @Override
+  public IGosuObject getObject()
+  {
+    return _object;
+  }
+
+  @Override
+  public Object getMember( String name )
+  {
+    return JavaObjectView.wrap( member( name ).get( _object ) );
+  }
+
+  /*Writes to members that are not writable properties fail, as they would in Gosu*/
+  @Override
+  public void setMember( String name, Object value )
+  {
+    Member member = member( name );
+    if( member == NO_MEMBER )
+    {
+      throw new IllegalArgumentException( "No property " + name + " on " + getClassName() );
+    }
+    member.set( _object, JavaObjectView.unwrap( value ) );
+  }
+
+  @Override
+  public boolean hasMember( String name )
+  {
+    return member( name ) != NO_MEMBER;
+  }
+
+  @Override
+  public Set<String> keySet()
+  {
+    Set<String> keys = new LinkedHashSet<>();
+    for( IPropertyInfo property : typeInfo().getProperties() )
+    {
+      keys.add( property.getName() );
+    }
+    return keys;
+  }
+
+  @Override
+  public String getClassName()
+  {
+    return _object.getIntrinsicType().getName();
+  }
+
+  private Member member( String name )
+  {
+    Member member = _members.get( name );
+    if( member == null )
+    {
+      member = _members.computeIfAbsent( name, key -> resolve( typeInfo(), key, false ) );
+    }
+    return member;
+  }
+
+  private ITypeInfo typeInfo()
+  {
+    return _object.getIntrinsicType().getTypeInfo();
+  }
+
+  /*Resolves the instance or the static members of a name*/
+  static Member resolve( ITypeInfo typeInfo, String name, boolean statics )
+  {
+    IPropertyInfo property = typeInfo.getProperty( name );
+    if( property != null && (property.isStatic() || !statics) )
+    {
+      return new PropertyMember( property );
+    }
+    List<IMethodInfo> methods = new ArrayList<>();
+    for( IMethodInfo method : typeInfo.getMethods() )
+    {
+      if( method.isStatic() == statics && method.getDisplayName().equals( name ) )
+      {
+        methods.add( method );
+      }
+    }
+    return methods.isEmpty() ? NO_MEMBER : new MethodMember( name, methods );
+  }
+
+  interface Member
+  {
+    Object get( Object target );
+
+    void set( Object target, Object value );
+  }
+
+  private static class PropertyMember implements Member
+  {
+    private final String _name;
+    private final IPropertyAccessor _accessor;
+    private final boolean _readable;
+    private final boolean _writable;
+    private final JavascriptCoercer.CoercionFunction _coercion;
+
+    PropertyMember( IPropertyInfo property )
+    {
+      _name = property.getName();
+      _accessor = property.getAccessor();
+      _readable = property.isReadable();
+      _writable = property.isWritable();
+      _coercion = JavascriptCoercer.bindJStoJava( property.getFeatureType() );
+    }
+
+    @Override
+    public Object get( Object target )
+    {
+      return _readable ? _accessor.getValue( target ) : null;
+    }
+
+    @Override
+    public void set( Object target, Object value )
+    {
+      if( !_writable )
+      {
+        throw new IllegalArgumentException( "Property " + _name + " is not writable" );
+      }
+      _accessor.setValue( target, _coercion.operation( value ) );
+    }
+  }
+
+  /*The methods of one name, as a javascript function called with a view as this. The arguments are coerced to the
+   *parameter types of the overload they select*/
+  private static class MethodMember extends AbstractJSObject implements Member
+  {
+    private final String _name;
+    private final IMethodInfo[] _methods;
+    private final GosuOverloads _overloads;
+
+    MethodMember( String name, List<IMethodInfo> methods )
+    {
+      _name = name;
+      _methods = methods.toArray( new IMethodInfo[methods.size()] );
+      List<IParameterInfo[]> parameters = new ArrayList<>();
+      for( IMethodInfo method : _methods )
+      {
+        parameters.add( method.getParameters() );
+      }
+      _overloads = new GosuOverloads( "method " + name, parameters );
+    }
+
+    @Override
+    public Object get( Object target )
+    {
+      return this;
+    }
+
+    @Override
+    public void set( Object target, Object value )
+    {
+      throw new IllegalArgumentException( "Method " + _name + " can not be assigned" );
+    }
+
+    @Override
+    public Object call( Object thiz, Object... args )
+    {
+      int method = _overloads.select( args );
+      Object[] coerced = _overloads.coerce( method, args );
+      try
+      {
+        return JavaObjectView.wrap( _methods[method].getCallHandler().handleCall( JavaObjectView.unwrap( thiz ), coerced ) );
+      }
+      catch( Exception e )
+      {
+        throw GosuExceptionUtil.forceThrow( e );
+      }
+    }
+
+    @Override
+    public boolean isFunction()
+    {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package tora.plugin;
+
+import gw.lang.reflect.IParameterInfo;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuObject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*The overloads of a Gosu method or constructor called from javascript. The first overload whose parameter types take
+ *the arguments is called; if there is none, the first one taking as many arguments.
+ *
+ *Which overload takes the arguments only depends on their classes, so the choice is made once per signature of
+ *argument classes. The last signature is kept and checked first, which lets a call site that always passes the same
+ *classes skip the lookup without allocating*/
+final class GosuOverloads
+{
+  private final String _name;
+  private final IType[][] _types;
+  private final JavascriptCoercer.CoercionFunction[][] _coercions;
+  private final Map<List<Class<?>>, Integer> _selections = new ConcurrentHashMap<>();
+  private volatile Selection _last;
+
+  GosuOverloads( String name, List<IParameterInfo[]> overloads )
+  {
+    _name = name;
+    _types = new IType[overloads.size()][];
+    _coercions = new JavascriptCoercer.CoercionFunction[overloads.size()][];
+    for( int i = 0; i < _types.length; i++ )
+    {
+      IParameterInfo[] params = overloads.get( i );
+      _types[i] = new IType[params.length];
+      _coercions[i] = new JavascriptCoercer.CoercionFunction[params.length];
+      for( int j = 0; j < params.length; j++ )
+      {
+        _types[i][j] = params[j].getFeatureType();
+        _coercions[i][j] = JavascriptCoercer.bindJStoJava( _types[i][j] );
+      }
+    }
+  }
+
+  /*Returns the index of the overload to call with the given arguments, which may still be views*/
+  int select( Object[] args )
+  {
+    if( _types.length == 1 && _types[0].length == args.length )
+    {
+      return 0;
+    }
+    Selection last = _last;
+    if( last != null && last.matches( args ) )
+    {
+      return last._overload;
+    }
+    Class<?>[] classes = new Class<?>[args.length];
+    for( int j = 0; j < args.length; j++ )
+    {
+      classes[j] = classOf( args[j] );
+    }
+    List<Class<?>> signature = Arrays.asList( classes );
+    Integer overload = _selections.get( signature );
+    if( overload == null )
+    {
+      overload = resolve( args );
+      _selections.put( signature, overload );
+    }
+    _last = new Selection( classes, overload );
+    return overload;
+  }
+
+  /*Returns the arguments unwrapped and coerced to the parameter types of the overload*/
+  Object[] coerce( int overload, Object[] args )
+  {
+    JavascriptCoercer.CoercionFunction[] coercions = _coercions[overload];
+    Object[] coerced = new Object[args.length];
+    for( int j = 0; j < args.length; j++ )
+    {
+      coerced[j] = coercions[j].operation( JavaObjectView.unwrap( args[j] ) );
+    }
+    return coerced;
+  }
+
+  private int resolve( Object[] args )
+  {
+    int overload = -1;
+    for( int i = 0; i < _types.length; i++ )
+    {
+      if( _types[i].length == args.length )
+      {
+        if( accepts( _types[i], args ) )
+        {
+          return i;
+        }
+        if( overload < 0 )
+        {
+          overload = i;
+        }
+      }
+    }
+    if( overload < 0 )
+    {
+      throw new IllegalArgumentException( "No " + _name + " taking " + args.length + " arguments" );
+    }
+    return overload;
+  }
+
+  private static Class<?> classOf( Object arg )
+  {
+    return arg == null ? null : JavaObjectView.unwrap( arg ).getClass();
+  }
+
+  private static boolean accepts( IType[] types, Object[] args )
+  {
+    for( int j = 0; j < types.length; j++ )
+    {
+      if( !accepts( types[j], JavaObjectView.unwrap( args[j] ) ) )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*Whether the argument's type is assignable to the parameter type, or the argument is a boxed value of a primitive
+   *parameter. Numbers fit any numeric primitive, since javascript numbers reach java as Integer or Double*/
+  private static boolean accepts( IType type, Object arg )
+  {
+    if( arg == null )
+    {
+      return !type.isPrimitive();
+    }
+    if( type.isPrimitive() )
+    {
+      switch( type.getName() )
+      {
+        case "boolean":
+          return arg instanceof Boolean;
+        case "char":
+          return arg instanceof Character;
+        default:
+          return arg instanceof Number;
+      }
+    }
+    IType argType = arg instanceof IGosuObject ? ((IGosuObject)arg).getIntrinsicType() : TypeSystem.get( arg.getClass() );
+    return type.isAssignableFrom( argType );
+  }
+
+  private static final class Selection
+  {
+    private final Class<?>[] _classes;
+    private final int _overload;
+
+    Selection( Class<?>[] classes, int overload )
+    {
+      _classes = classes;
+      _overload = overload;
+    }
+
+    boolean matches( Object[] args )
+    {
+      if( args.length != _classes.length )
+      {
+        return false;
+      }
+      for( int j = 0; j < args.length; j++ )
+      {
+        if( classOf( args[j] ) != _classes[j] )
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package tora.plugin;
+
+import gw.lang.reflect.IJavaType;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.gs.IGosuClass;
+import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import tora.parser.tree.FunctionNode;
+import tora.parser.tree.ParameterNode;
+
+import java.nio.Buffer;
+import java.util.List;
+import java.util.Map;
+
+/*Everything a call to a javascript function needs, resolved once when the type info is built: the coercion of
+ *each parameter, the return type and its coercion. Functions typed with primitives only get a PrimitiveInvoker
+ *instead. Plans are immutable, so call handlers share them across threads.
+ *
+ *Views are opt-in: parameters declared as List, Map, an nio buffer or a Gosu class are passed to javascript as
+ *JavaObjectViews. A view is not the java object, so javascript can not hand it on to java methods; dynamic
+ *parameters and parameters declared with any other type are passed as the objects themselves for that*/
+public final class InvocationPlan
+{
+  private static final String DYNAMIC = "dynamic.Dynamic";
+
+  private final String _name;
+  private final JavascriptCoercer.CoercionFunction[] _paramCoercions;
+  private final IType _returnType;
+  private final JavascriptCoercer.CoercionFunction _returnCoercion;
+  private final PrimitiveInvoker _primitiveInvoker;
+
+  private InvocationPlan( String name, JavascriptCoercer.CoercionFunction[] paramCoercions, IType returnType,
+                          JavascriptCoercer.CoercionFunction returnCoercion, PrimitiveInvoker primitiveInvoker )
+  {
+    _name = name;
+    _paramCoercions = paramCoercions;
+    _returnType = returnType;
+    _returnCoercion = returnCoercion;
+    _primitiveInvoker = primitiveInvoker;
+  }
+
+  public static InvocationPlan forFunction( FunctionNode node ) throws ClassNotFoundException
+  {
+    ParameterNode params = node.getFirstChild( ParameterNode.class );
+    IType returnType = TypeSystem.getByRelativeName( node.getReturnType() );
+    //javascript objects returned as dynamic values are read by Gosu as expandos, without going through the coercer
+    JavascriptCoercer.CoercionFunction returnCoercion = returnType.getName().equals( DYNAMIC )
+                                                        ? ExpandoWrapper::wrap
+                                                        : JavascriptCoercer.bindJStoJava( returnType );
+    return new InvocationPlan( node.getName(), bindParameters( params ), returnType, returnCoercion,
+                               PrimitiveInvoker.forTypes( params.getTypes(), node.getReturnType() ) );
+  }
+
+  static JavascriptCoercer.CoercionFunction[] bindParameters( ParameterNode params ) throws ClassNotFoundException
+  {
+    List<String> types = params.getTypes();
+    JavascriptCoercer.CoercionFunction[] paramCoercions = new JavascriptCoercer.CoercionFunction[types.size()];
+    for( int i = 0; i < paramCoercions.length; i++ )
+    {
+      if( types.get( i ).equals( DYNAMIC ) )
+      {
+        paramCoercions[i] = ExpandoWrapper::unwrap;
+        continue;
+      }
+      IType type = TypeSystem.getByRelativeName( types.get( i ) );
+      JavascriptCoercer.CoercionFunction coercion = JavascriptCoercer.bindJavatoJS( type );
+      paramCoercions[i] = isViewed( type )
+                          ? o -> JavaObjectView.wrap( coercion.operation( o ) )
+                          : o -> ExpandoWrapper.unwrap( coercion.operation( o ) );
+    }
+    return paramCoercions;
+  }
+
+  private static boolean isViewed( IType type )
+  {
+    if( type instanceof IGosuClass )
+    {
+      return true;
+    }
+    if( !(type instanceof IJavaType) )
+    {
+      return false;
+    }
+    Class<?> backingClass = ((IJavaType)type).getBackingClass();
+    return backingClass == List.class || backingClass == Map.class || Buffer.class.isAssignableFrom( backingClass );
+  }
+
+  static void coerceArguments( JavascriptCoercer.CoercionFunction[] paramCoercions, Object[] args )
+  {
+    int count = Math.min( args.length, paramCoercions.length );
+    for( int i = 0; i < count; i++ )
+    {
+      args[i] = paramCoercions[i].operation( args[i] );
+    }
+  }
+
+  public String getName()
+  {
+    return _name;
+  }
+
+  public IType getReturnType()
+  {
+    return _returnType;
+  }
+
+  /*Calls the function object directly, with the given this*/
+  public Object invoke( JSObject function, Object thiz, Object[] args )
+  {
+    if( _primitiveInvoker != null )
+    {
+      return _primitiveInvoker.invoke( function, thiz, args );
+    }
+    coerceArguments( _paramCoercions, args );
+    Object o = function.call( thiz, args );
+    return _returnCoercion.operation( JavaObjectView.unwrap( o ) );
+  }
+
+  /*Calls the function as a member of the target (a global scope, class object or instance). The arguments are
+   *coerced in place*/
+  public Object invoke( ScriptObjectMirror target, Object[] args )
+  {
+    if( _primitiveInvoker != null )
+    {
+      return _primitiveInvoker.invoke( (JSObject)target.getMember( _name ), target, args );
+    }
+    coerceArguments( _paramCoercions, args );
+    Object o = target.callMember( _name, args );
+    return _returnCoercion.operation( JavaObjectView.unwrap( o ) );
+  }
+}
@@ -0,0 +1,208 @@
+package tora.plugin;
+
+import gw.util.GosuExceptionUtil;
+import jdk.nashorn.api.scripting.AbstractJSObject;
+import jdk.nashorn.api.scripting.ScriptUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*The public instance methods of a class as javascript functions, looked up once per class and name, for views that
+ *keep the methods of the object they wrap callable. Calls are made with a view as this*/
+class JavaMethods
+{
+  private static final ClassValue<Map<String, MethodFunction>> METHODS = new ClassValue<Map<String, MethodFunction>>()
+  {
+    @Override
+    protected Map<String, MethodFunction> computeValue( Class<?> type )
+    {
+      Map<String, List<Method>> byName = new HashMap<>();
+      for( Method method : type.getMethods() )
+      {
+        if( !Modifier.isStatic( method.getModifiers() ) )
+        {
+          Method accessible = accessible( type, method );
+          List<Method> methods = byName.computeIfAbsent( method.getName(), name -> new ArrayList<>() );
+          if( accessible != null && !methods.contains( accessible ) )
+          {
+            methods.add( accessible );
+          }
+        }
+      }
+      Map<String, MethodFunction> functions = new HashMap<>();
+      byName.forEach( ( name, methods ) -> {
+        if( !methods.isEmpty() )
+        {
+          functions.put( name, new MethodFunction( methods ) );
+        }
+      } );
+      return functions;
+    }
+  };
+
+  private JavaMethods()
+  {
+  }
+
+  /*Returns the methods of the given name, or null if the class has none*/
+  static Object get( Class<?> type, String name )
+  {
+    return METHODS.get( type ).get( name );
+  }
+
+  /*Public methods of classes that are not public, such as those of Arrays.asList, can only be invoked through a
+   *public class or interface declaring them*/
+  private static Method accessible( Class<?> type, Method method )
+  {
+    if( Modifier.isPublic( method.getDeclaringClass().getModifiers() ) )
+    {
+      return method;
+    }
+    for( Class<?> c = type; c != null; c = c.getSuperclass() )
+    {
+      if( Modifier.isPublic( c.getModifiers() ) && c != type )
+      {
+        try
+        {
+          return accessible( c, c.getMethod( method.getName(), method.getParameterTypes() ) );
+        }
+        catch( NoSuchMethodException e )
+        {
+          //declared by an interface only
+        }
+      }
+      for( Class<?> iface : c.getInterfaces() )
+      {
+        try
+        {
+          return accessible( iface, iface.getMethod( method.getName(), method.getParameterTypes() ) );
+        }
+        catch( NoSuchMethodException e )
+        {
+          //not declared by this interface
+        }
+      }
+    }
+    return null;
+  }
+
+  private static class MethodFunction extends AbstractJSObject
+  {
+    private final Method[] _methods;
+
+    MethodFunction( List<Method> methods )
+    {
+      //overloads taking primitives first, so list.remove(0) removes by index as it does through the bean linker
+      methods.sort( Comparator.comparingInt( MethodFunction::boxedParameterCount ) );
+      _methods = methods.toArray( new Method[methods.size()] );
+    }
+
+    private static int boxedParameterCount( Method method )
+    {
+      int count = 0;
+      for( Class<?> param : method.getParameterTypes() )
+      {
+        if( !param.isPrimitive() )
+        {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /*The first overload whose parameters take the arguments as they are is called; if there is none, the first one
+     *taking as many arguments is called with the arguments converted*/
+    @Override
+    public Object call( Object thiz, Object... args )
+    {
+      Object[] unwrapped = new Object[args.length];
+      for( int i = 0; i < args.length; i++ )
+      {
+        unwrapped[i] = JavaObjectView.unwrap( args[i] );
+      }
+      Method method = null;
+      for( Method candidate : _methods )
+      {
+        if( candidate.getParameterCount() == args.length )
+        {
+          if( accepts( candidate.getParameterTypes(), unwrapped ) )
+          {
+            method = candidate;
+            break;
+          }
+          if( method == null )
+          {
+            method = candidate;
+          }
+        }
+      }
+      if( method == null )
+      {
+        throw new IllegalArgumentException( "No method " + _methods[0].getName() + " taking " + args.length +
+                                            " arguments" );
+      }
+      Class<?>[] params = method.getParameterTypes();
+      Object[] converted = new Object[args.length];
+      for( int i = 0; i < args.length; i++ )
+      {
+        Object arg = unwrapped[i];
+        converted[i] = params[i].isInstance( arg ) ? arg : ScriptUtils.convert( arg, params[i] );
+      }
+      try
+      {
+        return JavaObjectView.wrap( method.invoke( JavaObjectView.unwrap( thiz ), converted ) );
+      }
+      catch( InvocationTargetException e )
+      {
+        throw GosuExceptionUtil.forceThrow( e.getCause() );
+      }
+      catch( IllegalAccessException e )
+      {
+        throw GosuExceptionUtil.forceThrow( e );
+      }
+    }
+
+    private static boolean accepts( Class<?>[] params, Object[] args )
+    {
+      for( int i = 0; i < params.length; i++ )
+      {
+        if( !accepts( params[i], args[i] ) )
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /*Whether the argument is an instance of the parameter type, or a boxed value of a primitive parameter. Numbers
+     *fit any numeric primitive, since javascript numbers reach java as Integer or Double*/
+    private static boolean accepts( Class<?> param, Object arg )
+    {
+      if( !param.isPrimitive() )
+      {
+        return arg == null || param.isInstance( arg );
+      }
+      if( param == boolean.class )
+      {
+        return arg instanceof Boolean;
+      }
+      if( param == char.class )
+      {
+        return arg instanceof Character;
+      }
+      return arg instanceof Number;
+    }
+
+    @Override
+    public boolean isFunction()
+    {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package tora.plugin;
+
+import gw.lang.reflect.gs.IGosuObject;
+import jdk.nashorn.api.scripting.AbstractJSObject;
+import jdk.nashorn.internal.runtime.Undefined;
+
+import java.util.List;
+import java.util.Map;
+
+/*A java object as seen from javascript, without copying it into a javascript object. Arguments passed to javascript
+ *functions are wrapped in views by the coercion step of the call handlers, and views are unwrapped again when they
+ *come back to java*/
+public abstract class JavaObjectView extends AbstractJSObject
+{
+  //what javascript reads for a member or index a view does not have
+  static final Object UNDEFINED = Undefined.getUndefined();
+
+  public abstract Object getObject();
+
+  public static Object wrap( Object o )
+  {
+    if( o instanceof ExpandoWrapper )
+    {
+      return ((ExpandoWrapper)o).getMirror();
+    }
+    if( o instanceof List )
+    {
+      return new ListView( (List<?>)o );
+    }
+    if( o instanceof Map )
+    {
+      return new MapView( (Map<?, ?>)o );
+    }
+    if( o instanceof IGosuObject )
+    {
+      return new GosuObjectView( (IGosuObject)o );
+    }
+    TypedArrayView typedArray = TypedArrayView.forObject( o );
+    return typedArray != null ? typedArray : o;
+  }
+
+  public static Object unwrap( Object o )
+  {
+    return o instanceof JavaObjectView ? ((JavaObjectView)o).getObject() : o;
+  }
+
+  @Override
+  public String getClassName()
+  {
+    return getObject().getClass().getName();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.valueOf( getObject() );
+  }
+}
@@ -6,32 +6,56 @@ import gw.lang.reflect.IType;
 import gw.lang.reflect.ITypeInfo;
 import gw.lang.reflect.TypeSystem;
 import gw.lang.reflect.gs.IGenericTypeVariable;
+import gw.util.concurrent.LockingLazyVar;
 import tora.parser.Parser;
 import tora.parser.tree.ClassNode;
 import tora.parser.tree.ProgramNode;
 
+import java.util.List;
+
 public class JavascriptClassType extends JavascriptTypeBase
 {
-  private final JavascriptClassTypeInfo _typeinfo;
+  private final LockingLazyVar<JavascriptClassTypeInfo> _typeinfo;
   private ProgramNode _programNode;
   private IType _superType;
+  private IType[] _interfaces;
 
 
   public JavascriptClassType(JavascriptPlugin typeloader, String name, IFile jsFile, ProgramNode programNode)
   {
     super( typeloader, name, jsFile );
-    _typeinfo = new JavascriptClassTypeInfo( this, programNode );
+    _typeinfo = new LockingLazyVar<JavascriptClassTypeInfo>()
+    {
+      @Override
+      protected JavascriptClassTypeInfo init()
+      {
+        return new JavascriptClassTypeInfo( JavascriptClassType.this, programNode );
+      }
+    };
     _programNode = programNode;
 
     String packageName = _programNode.getPackageFromClassName(_programNode.getFirstChild(ClassNode.class)
             .getSuperClass());
     if (packageName != null) _superType = TypeSystem.getByFullName(packageName);
+
+    List<String> interfaceNames = _programNode.getFirstChild(ClassNode.class).getInterfaces();
+    _interfaces = interfaceNames.stream()
+            .map(interfaceName -> _programNode.getPackageFromClassName(interfaceName))
+            .filter(fullName -> fullName != null)
+            .map(fullName -> TypeSystem.getByFullName(fullName))
+            .toArray(IType[]::new);
+  }
+
+  @Override
+  public IType[] getInterfaces()
+  {
+    return _interfaces;
   }
 
   @Override
   public ITypeInfo getTypeInfo()
   {
-    return _typeinfo;
+    return _typeinfo.get();
   }
 
 
@@ -4,20 +4,27 @@ import gw.config.CommonServices;
 import gw.lang.parser.TypeVarToTypeMap;
 import gw.lang.reflect.*;
 import gw.util.GosuExceptionUtil;
-import jdk.nashorn.api.scripting.JSObject;
+import gw.util.concurrent.LockingLazyVar;
 import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import tora.engine.EngineKind;
 import tora.parser.tree.*;
-import tora.plugin.JavascriptCoercer;
 
-import javax.script.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
 {
-  private final ScriptEngine _engine;
+  private final JavascriptRuntime _runtime;
+  //the class's constructor function, looked up once after the class is evaluated
+  private final LockingLazyVar<ScriptObjectMirror> _classObject;
   private IConstructorInfo _constructor;
   private List<IConstructorInfo> _constructorList;
   private final MethodList _methods;
+  private final MethodIndex _methodIndex;
+  //the java type the class extends, null if none; inherited methods are built per name on first lookup
+  private final SupertypeCache.Supertype _supertype;
+  private final Map<String, MethodIndex> _inheritedMethods = new ConcurrentHashMap<>();
+  private final LockingLazyVar<MethodList> _allMethods;
   private ProgramNode _programNode;
   private List<IPropertyInfo> _propertiesList;
   Map<String, IPropertyInfo> _propertiesMap;
@@ -33,15 +40,31 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
     _methods = new MethodList();
     _propertiesList = new ArrayList<>();
     _propertiesMap = new HashMap<>();
-    try {
-      _engine = new ScriptEngineManager().getEngineByName("nashorn");
-      _engine.eval(programNode.genCode());
-      addConstructor(classNode);
-      addMethods(classNode);
-      addProperties(classNode);
-    } catch (ScriptException e) {
-      throw GosuExceptionUtil.forceThrow(e);
-    }
+    _runtime = new JavascriptRuntime(javascriptType, EngineKind.CLASS, programNode);
+    _classObject = new LockingLazyVar<ScriptObjectMirror>() {
+      @Override
+      protected ScriptObjectMirror init() {
+        return (ScriptObjectMirror) _runtime.get(classNode.getName());
+      }
+    };
+    String superClassName = _programNode.getPackageFromClassName(classNode.getSuperClass());
+    _supertype = superClassName == null ? null : SupertypeCache.get(superClassName);
+    addConstructor(classNode);
+    addMethods(classNode);
+    addProperties(classNode);
+    _methodIndex = new MethodIndex(_methods);
+    _allMethods = new LockingLazyVar<MethodList>() {
+      @Override
+      protected MethodList init() {
+        MethodList methods = new MethodList(_methods);
+        if (_supertype != null) {
+          for (String name : _supertype.getMethodNames()) {
+            methods.addAll(getInheritedMethods(name).getMethods());
+          }
+        }
+        return methods;
+      }
+    };
   }
 
   private void addConstructor(ClassNode classNode) {
@@ -51,8 +74,9 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
     _constructor = new ConstructorInfoBuilder()
             .withParameters(params)
             .withConstructorHandler((args) -> {
-                JSObject classObject =  (ScriptObjectMirror) _engine.get(classNode.getName());
-                return classObject.newObject(args);
+                ScriptObjectMirror instance = (ScriptObjectMirror) _classObject.get().newObject(args);
+                //Classes implementing java interfaces are handed out as the java object implementing them
+                return classNode.getInterfaces().isEmpty() ? instance : instance.getMember(ClassNode.INTERFACE_OBJECT);
             }).build(this);
     _constructorList.add(_constructor);
   }
@@ -66,15 +90,14 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
               .withType(TypeSystem.getByFullName("dynamic.Dynamic"))
               .withAccessor(new IPropertyAccessor() {
                 /*getProperty will accessor for static props only*/
-                Object classObject = _engine.get(classNode.getName());
                 //Use the classObject as the context for static properties
                 @Override
                 public Object getValue(Object o) {
-                  return ((Bindings) classObject).get(node.getName());
+                  return _classObject.get().get(node.getName());
                 }
                 @Override
                 public void setValue(Object ctx, Object value) {
-                  ((Bindings) classObject).put(node.getName(), value);
+                  _classObject.get().put(node.getName(), value);
                 }
               })
               .build(this);
@@ -83,30 +106,20 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
     }
   }
 
-  private void addMethods(ClassNode classNode) throws ScriptException {
-    ScriptObjectMirror classObject = (ScriptObjectMirror) _engine.get(classNode.getName());
-    JavascriptCoercer coercer = new JavascriptCoercer();
+  private void addMethods(ClassNode classNode) {
     for (ClassFunctionNode node : classNode.getChildren(ClassFunctionNode.class)) {
       if (!node.isOverride()) {
         try {
+          InvocationPlan plan = InvocationPlan.forFunction(node);
           _methods.add(new MethodInfoBuilder()
                   .withName(node.getName())
                   .withStatic(node.isStatic())
                   .withParameters((node.getFirstChild(ParameterNode.class)).toParamList())
-                  .withReturnType(TypeSystem.getByRelativeName(node.getReturnType()))
+                  .withReturnType(plan.getReturnType())
                   .withCallHandler((ctx, args) -> {
-                    for(int i = 0 ; i < args.length; i ++) {
-                      String paramType = node.getFirstChild(ParameterNode.class).getTypes().get(i);
-                      if(!paramType.equals("dynamic.Dynamic")) {
-                        args [i] = coercer.coerceTypesJavatoJS(args[i], paramType);
-                      }
-                    }
                     try {
-                      if (node.isStatic()) ctx = classObject;
-                      ScriptObjectMirror context = (ScriptObjectMirror) ctx;
-                      Object o = context.callMember(node.getName(), args);
-                      String returnType = TypeSystem.getByRelativeName(node.getReturnType()).getName();
-                      return coercer.coerceTypesJStoJava(o, returnType);
+                      if (node.isStatic()) ctx = _classObject.get();
+                      return plan.invoke(toScriptObject(ctx), args);
                     } catch (Exception e) {
                       throw GosuExceptionUtil.forceThrow(e);
                     }
@@ -117,68 +130,47 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
         }
       }
     }
+  }
 
-    //Add inherited methods if the class extends
-    String packageName = _programNode.getPackageFromClassName(classNode.getSuperClass());
-    if (packageName == null) return;
-    IType superType = TypeSystem.getByFullName(packageName);
-    if (superType == null) return;
-
-    if (superType.isGenericType()) {
-      IType[] typeParams = new IType[superType.getGenericTypeVariables().length];
-      for (int i = 0; i < typeParams.length; i++) {
-        typeParams[i] = TypeSystem.getByFullName("dynamic.Dynamic");
-      }
-      superType = superType.getParameterizedType(typeParams);
-    }
-    for (IMethodInfo method : superType.getTypeInfo().getMethods()) {
-      _methods.add(new MethodInfoBuilder()
-              .withName(method.getDisplayName())
-              .withParameters(makeInheritedParamList(method))
-              .withStatic(method.isStatic())
-              .withReturnType(method.getReturnType())
-              .withCallHandler((ctx, args) -> {
-                try {
-                  //Call the method on the superclass (which exists as a property object for now)
-                  ScriptObjectMirror context = (ScriptObjectMirror) ctx;
-                  Object superClass = context.callMember("_getSuperClass");
-                  return method.getCallHandler().handleCall(superClass, args);
-                } catch (Exception e) {
-                  throw GosuExceptionUtil.forceThrow(e);
-                }
-              })
-              .build(this));
+  /*Instances of classes implementing java interfaces are their interface objects outside of javascript, and instances
+   *returned as dynamic values are expandos*/
+  static ScriptObjectMirror toScriptObject(Object instance) {
+    if (instance instanceof JavascriptObject) {
+      instance = ((JavascriptObject) instance)._getScriptObject();
     }
+    return (ScriptObjectMirror) ExpandoWrapper.unwrap(instance);
   }
 
-
-
-  /*Construct a parameter list for inherited parameters. If param matches a generic type variable, make type Dynamic*/
-  private ParameterInfoBuilder[] makeInheritedParamList (IMethodInfo method) {
-    IParameterInfo[]  params = method.getParameters();
-    ParameterInfoBuilder[] parameterInfoBuilders = new ParameterInfoBuilder[params.length];
-
-    for (int i = 0; i < params.length; i++) {
-      ParameterInfoBuilder param = new ParameterInfoBuilder().like(params[i]);
-      parameterInfoBuilders[i] = param;
-    }
-    return parameterInfoBuilders;
+  private MethodIndex getInheritedMethods(String name) {
+    return _inheritedMethods.computeIfAbsent(name, n -> {
+      MethodList methods = new MethodList();
+      for (SupertypeCache.InheritedMethod method : _supertype.getMethods(n)) {
+        methods.add(method.build(this));
+      }
+      return new MethodIndex(methods);
+    });
   }
 
+  //For tests, whether the method infos inherited under a name have been built
+  boolean isInheritedMethodBuilt(String name) {
+    return _inheritedMethods.containsKey(name);
+  }
 
   @Override
   public List<? extends IConstructorInfo> getConstructors() {
     return _constructorList;
   }
 
+  //A class has a single constructor, which takes dynamic arguments, so it is returned for any parameter types
+  //rather than matched against them exactly
   @Override
   public IConstructorInfo getConstructor( IType... params ) {
-    return _constructor;
+    return _constructorList.size() == 1 ? _constructor : FIND.constructor( getConstructors(), params );
   }
 
   @Override
   public IConstructorInfo getCallableConstructor ( IType... params ) {
-    return _constructor;
+    return _constructorList.size() == 1 ? _constructor : FIND.callableConstructor( getConstructors(), params );
   }
 
   @Override
@@ -194,18 +186,26 @@ public class JavascriptClassTypeInfo extends BaseTypeInfo implements ITypeInfo
   @Override
   public MethodList getMethods()
   {
-    return _methods;
+    return _allMethods.get();
   }
 
   @Override
   public IMethodInfo getCallableMethod(CharSequence strMethod, IType... params) {
-    return FIND.callableMethod( getMethods(), strMethod, params );
+    IMethodInfo method = _methodIndex.callableMethod( strMethod, params );
+    if (method == null && _supertype != null && _supertype.hasMethod(strMethod.toString())) {
+      method = getInheritedMethods(strMethod.toString()).callableMethod( strMethod, params );
+    }
+    return method;
   }
 
   @Override
   public IMethodInfo getMethod( CharSequence methodName, IType... params )
   {
-    return FIND.method(getMethods(), methodName, params);
+    IMethodInfo method = _methodIndex.method( methodName, params );
+    if (method == null && _supertype != null && _supertype.hasMethod(methodName.toString())) {
+      method = getInheritedMethods(methodName.toString()).method( methodName, params );
+    }
+    return method;
   }
 
 }
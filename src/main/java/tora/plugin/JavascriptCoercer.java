@@ -1,99 +1,298 @@
 package tora.plugin;
 
-import gw.lang.reflect.Type;
-import gw.lang.reflect.TypeSystem;
+import gw.lang.reflect.IJavaType;
 import gw.lang.reflect.IType;
+import gw.lang.reflect.TypeSystem;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.function.BooleanSupplier;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 
 /**
  * Created by lmeyer-teruel on 8/2/2016.
  */
 public class JavascriptCoercer {
 
+    //Shared coercion tables, one per direction. A table is never modified; adding a coercion replaces it
+    private static volatile Table _JStoJavaTable = new Table(Collections.emptyList());
+    private static volatile Table _JavatoJSTable = new Table(Collections.emptyList());
 
-    HashMap<String, CoercionFunction> _JStoJavaMap;
-    HashMap<String, CoercionFunction> _JavatoJSMap;
-
-    interface CoercionFunction {
+    public interface CoercionFunction {
         Object operation(Object a);
     }
 
-    public JavascriptCoercer() {
-        _JavatoJSMap = new HashMap<String, CoercionFunction>();
-        _JStoJavaMap = new HashMap<String, CoercionFunction>();
+    /* interface: Provider
+    *  ---------------------------
+    *  Service interface for application specific coercions. Providers listed in
+    *  META-INF/services/tora.plugin.JavascriptCoercer$Provider are loaded with the default coercions and add
+    *  theirs with the static add methods
+    */
+    public interface Provider {
+        void addCoercions();
+    }
+
+    static {
+        addNumericCoercions();
+        addArrayCoercions();
+        addBufferCoercions();
 
-        //Initial coercions are from double to int and double to string upon return
-        addJStoJavaCoercer("Double", "Integer", (o -> {
-            return ((Double) o).intValue();
-        }));
-        addJStoJavaCoercer("Double", "String", (o -> {
-            return ((Double) o).toString();
-        }));
+        addJStoJavaCoercer(Number.class, String.class, Object::toString);
+        addJStoJavaCoercer(Boolean.class, String.class, Object::toString);
+        addJStoJavaCoercer(CharSequence.class, String.class, Object::toString);
+        addJavatoJSCoercer(CharSequence.class, String.class, Object::toString);
 
-        addJavatoJSCoercer("Integer", "Double", (o -> {
-            return ((Integer) o).doubleValue();
-        }));
+        for (Provider provider : ServiceLoader.load(Provider.class, JavascriptCoercer.class.getClassLoader())) {
+            provider.addCoercions();
+        }
+    }
 
+    private JavascriptCoercer() {
     }
 
     /* function: addJStoJavaCoercer
     *  ---------------------------
-    *  This function adds a new coercion rule to the _JStoJavaMap and returns true if
-    *  succesfuly added, false if it fails
+    *  Adds a coercion rule for values returned from javascript, applying to instances of the source class and its
+    *  subclasses. A rule added later replaces an earlier one for the same classes
     */
-    public Boolean addJStoJavaCoercer(String fromTypeString, String toTypeString, CoercionFunction func) {
-        return addToHashMap(fromTypeString, toTypeString, _JStoJavaMap, func);
+    public static void addJStoJavaCoercer(Class<?> from, Class<?> to, CoercionFunction func) {
+        addJStoJavaCoercer(from, typeName(to), func);
+    }
+
+    public static void addJStoJavaCoercer(Class<?> from, IType to, CoercionFunction func) {
+        addJStoJavaCoercer(from, to.getName(), func);
+    }
+
+    private static synchronized void addJStoJavaCoercer(Class<?> from, String to, CoercionFunction func) {
+        _JStoJavaTable = _JStoJavaTable.with(new Rule(from, to, func));
     }
 
     /* function: addJavatoJSCoercer
     *  ---------------------------
-    *  This function adds a new coercion rule to the _JavatoJSMap and returns true if
-    *  succesfuly added, false if it fails
+    *  Adds a coercion rule for arguments passed to javascript, by the declared type of the parameter
     */
-    public Boolean addJavatoJSCoercer(String fromTypeString, String toTypeString, CoercionFunction func) {
-        return addToHashMap(fromTypeString, toTypeString, _JavatoJSMap, func);
+    public static void addJavatoJSCoercer(Class<?> from, Class<?> to, CoercionFunction func) {
+        addJavatoJSCoercer(from, typeName(to), func);
     }
 
+    public static void addJavatoJSCoercer(Class<?> from, IType to, CoercionFunction func) {
+        addJavatoJSCoercer(from, to.getName(), func);
+    }
+
+    private static synchronized void addJavatoJSCoercer(Class<?> from, String to, CoercionFunction func) {
+        _JavatoJSTable = _JavatoJSTable.with(new Rule(from, to, func));
+    }
 
-    /* function: addToHashMap
+    /* function: addJStoJavaCoercer / addJavatoJSCoercer
     *  ---------------------------
-    *  Converts the two strings into ITypes and returns false if either of the types is not found, it then converts
-    *
+    *  Adds a coercion rule by type names, returns false if either type is not found or the source type is not a
+    *  java type
     */
-    private Boolean addToHashMap(String fromTypeString, String toTypeString, HashMap<String, CoercionFunction> converter, CoercionFunction coercer) {
-        IType toType;
-        IType fromType;
+    public static Boolean addJStoJavaCoercer(String fromTypeString, String toTypeString, CoercionFunction func) {
+        Class<?> from = backingClass(fromTypeString);
+        IType to = typeOrNull(toTypeString);
+        if (from == null || to == null) {
+            return false;
+        }
+        addJStoJavaCoercer(from, to, func);
+        return true;
+    }
+
+    public static Boolean addJavatoJSCoercer(String fromTypeString, String toTypeString, CoercionFunction func) {
+        Class<?> from = backingClass(fromTypeString);
+        IType to = typeOrNull(toTypeString);
+        if (from == null || to == null) {
+            return false;
+        }
+        addJavatoJSCoercer(from, to, func);
+        return true;
+    }
+
+    //Gosu names array types as in source, e.g. double[], where the class name is [D
+    private static String typeName(Class<?> type) {
+        return type.isArray() ? type.getCanonicalName() : type.getName();
+    }
+
+    private static Class<?> backingClass(String typeString) {
+        IType type = typeOrNull(typeString);
+        return type instanceof IJavaType ? ((IJavaType) type).getBackingClass() : null;
+    }
+
+    private static IType typeOrNull(String typeString) {
         try {
-            fromType = TypeSystem.getByRelativeName(fromTypeString);
-            toType = TypeSystem.getByRelativeName(toTypeString);
+            return TypeSystem.getByRelativeName(typeString);
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
-            return false;
+            return null;
         }
-        converter.put(fromType.getName() + toType.getName(), coercer);
-        return true;
     }
 
+    public static Object coerceTypesJavatoJS(Object anyType, String typeTo) {
+        return coerce(anyType, typeTo, _JavatoJSTable);
+    }
 
+    public static Object coerceTypesJStoJava(Object anyType, String typeTo) {
+        return coerce(anyType, typeTo, _JStoJavaTable);
+    }
 
-    public Object coerceTypesJavatoJS(Object anyType, String typeTo) {
-        return coerceTypes(anyType, typeTo, _JavatoJSMap);
+    /* function: bindJavatoJS / bindJStoJava
+    *  ---------------------------
+    *  Returns a coercion to the given type that only has to look up the runtime class of its argument, for call
+    *  handlers that know their target types ahead of time
+    */
+    public static CoercionFunction bindJavatoJS(IType typeTo) {
+        String to = boxedName(typeTo);
+        return o -> coerce(o, to, _JavatoJSTable);
     }
 
-    public Object coerceTypesJStoJava(Object anyType, String typeTo) {
-        return coerceTypes(anyType, typeTo, _JStoJavaMap);
+    public static CoercionFunction bindJStoJava(IType typeTo) {
+        String to = boxedName(typeTo);
+        return o -> coerce(o, to, _JStoJavaTable);
     }
 
-    private Object coerceTypes(Object anyType, String typeTo, HashMap<String, CoercionFunction> map) {
-        String currentType = anyType.getClass().getName();
-         CoercionFunction resultant = map.get(currentType + typeTo);
+    //Values of primitive types are boxed, so coercions to them are those to their box types
+    private static String boxedName(IType type) {
+        return type.isPrimitive() ? TypeSystem.getBoxType(type).getName() : type.getName();
+    }
+
+    private static Object coerce(Object anyType, String typeTo, Table table) {
+        if (anyType == null) {
+            return null;
+        }
+        CoercionFunction resultant = table._bySource.get(anyType.getClass()).get(typeTo);
         if (resultant == null) {
             return anyType;
         }
         return resultant.operation(anyType);
     }
-}
 
+    //Nashorn numbers are Integer, Long or Double; convert any number to the numeric type asked for
+    private static void addNumericCoercions() {
+        Map<Class<?>, CoercionFunction> numeric = new HashMap<>();
+        numeric.put(Byte.class, o -> ((Number) o).byteValue());
+        numeric.put(Short.class, o -> ((Number) o).shortValue());
+        numeric.put(Integer.class, o -> ((Number) o).intValue());
+        numeric.put(Long.class, o -> ((Number) o).longValue());
+        numeric.put(Float.class, o -> ((Number) o).floatValue());
+        numeric.put(Double.class, o -> ((Number) o).doubleValue());
+        numeric.put(BigInteger.class, JavascriptCoercer::toBigInteger);
+        numeric.put(BigDecimal.class, JavascriptCoercer::toBigDecimal);
+        numeric.forEach((to, func) -> {
+            addJStoJavaCoercer(Number.class, to, func);
+            addJavatoJSCoercer(Number.class, to, func);
+        });
+    }
+
+    //Javascript arrays returned where a list is declared are viewed as lists; where an array is declared they are
+    //converted in the engine with one call, rather than element by element through the mirror
+    private static void addArrayCoercions() {
+        for (Class<?> to : Arrays.asList(List.class, Collection.class, Iterable.class)) {
+            addJStoJavaCoercer(ScriptObjectMirror.class, to,
+                    o -> ((ScriptObjectMirror) o).isArray() ? new ScriptArrayList((ScriptObjectMirror) o) : o);
+        }
+        for (Class<?> to : Arrays.asList(double[].class, float[].class, long[].class, int[].class, short[].class,
+                byte[].class, char[].class, boolean[].class, Object[].class, String[].class)) {
+            addJStoJavaCoercer(ScriptObjectMirror.class, to,
+                    o -> ((ScriptObjectMirror) o).isArray() ? ((ScriptObjectMirror) o).to(to) : o);
+        }
+    }
+
+    //Typed array views unwrap to the array or buffer they were made from; buffers returned where an array is
+    //declared, such as the result of asFloat64Array(), are copied out
+    private static void addBufferCoercions() {
+        addJStoJavaCoercer(DoubleBuffer.class, double[].class, o -> {
+            DoubleBuffer buffer = ((DoubleBuffer) o).duplicate();
+            double[] array = new double[buffer.remaining()];
+            buffer.get(array);
+            return array;
+        });
+        addJStoJavaCoercer(IntBuffer.class, int[].class, o -> {
+            IntBuffer buffer = ((IntBuffer) o).duplicate();
+            int[] array = new int[buffer.remaining()];
+            buffer.get(array);
+            return array;
+        });
+    }
+
+    private static Object toBigDecimal(Object o) {
+        if (o instanceof BigInteger) {
+            return new BigDecimal((BigInteger) o);
+        }
+        if (o instanceof Double || o instanceof Float) {
+            return BigDecimal.valueOf(((Number) o).doubleValue());
+        }
+        return BigDecimal.valueOf(((Number) o).longValue());
+    }
 
+    private static Object toBigInteger(Object o) {
+        if (o instanceof BigDecimal) {
+            return ((BigDecimal) o).toBigInteger();
+        }
+        if (o instanceof Double || o instanceof Float) {
+            return BigDecimal.valueOf(((Number) o).doubleValue()).toBigInteger();
+        }
+        return BigInteger.valueOf(((Number) o).longValue());
+    }
+
+    private static class Rule {
+        final Class<?> _from;
+        final String _to;
+        final CoercionFunction _func;
+
+        Rule(Class<?> from, String to, CoercionFunction func) {
+            _from = from;
+            _to = to;
+            _func = func;
+        }
+    }
+
+    /* class: Table
+    *  ---------------------------
+    *  An immutable list of rules, with the coercions applying to each runtime class computed once per class.
+    *  Rules for the exact class win over rules for a supertype, later rules over earlier ones
+    */
+    private static class Table {
+        private final List<Rule> _rules;
+        private final ClassValue<Map<String, CoercionFunction>> _bySource;
+
+        Table(List<Rule> rules) {
+            _rules = rules;
+            _bySource = new ClassValue<Map<String, CoercionFunction>>() {
+                @Override
+                protected Map<String, CoercionFunction> computeValue(Class<?> type) {
+                    Map<String, CoercionFunction> byTarget = new HashMap<>();
+                    for (int i = _rules.size() - 1; i >= 0; i--) {
+                        Rule rule = _rules.get(i);
+                        if (rule._from == type) {
+                            byTarget.putIfAbsent(rule._to, rule._func);
+                        }
+                    }
+                    for (int i = _rules.size() - 1; i >= 0; i--) {
+                        Rule rule = _rules.get(i);
+                        if (rule._from.isAssignableFrom(type)) {
+                            byTarget.putIfAbsent(rule._to, rule._func);
+                        }
+                    }
+                    //values already of the target type are left alone
+                    byTarget.remove(type.getName());
+                    return byTarget;
+                }
+            };
+        }
+
+        Table with(Rule rule) {
+            List<Rule> rules = new ArrayList<>(_rules);
+            rules.add(rule);
+            return new Table(Collections.unmodifiableList(rules));
+        }
+    }
+}
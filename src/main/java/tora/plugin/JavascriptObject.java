@@ -0,0 +1,8 @@
+package tora.plugin;
+
+/*Implemented by the java objects that stand for instances of javascript classes implementing java interfaces.
+ *Java and Gosu code call the interface methods on them directly; the type's own members go to the script object*/
+public interface JavascriptObject
+{
+  Object _getScriptObject();
+}
@@ -12,6 +12,10 @@ import gw.lang.reflect.module.IModule;
 import gw.util.Pair;
 import gw.util.StreamUtil;
 import gw.util.concurrent.LockingLazyVar;
+import tora.engine.CodeCache;
+import tora.engine.EngineKind;
+import tora.engine.EngineOptions;
+import tora.engine.EngineSupply;
 import tora.parser.Parser;
 import tora.parser.TemplateParser;
 import tora.parser.TemplateTokenizer;
@@ -19,11 +23,13 @@ import tora.parser.Tokenizer;
 import tora.parser.tree.ProgramNode;
 import tora.parser.tree.template.JSTNode;
 
+import javax.script.ScriptEngine;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +42,8 @@ public class JavascriptPlugin extends TypeLoaderBase
   private static final String JS_EXTENSION = ".js";
   private static final String JST_EXTENSION = ".jst";
   private Set<String> _namespaces;
+  //engines hosting all types of this module when types share engines, keyed by engine options
+  private final Map<List<String>, ScriptEngine> _moduleEngines = new HashMap<>();
 
 
   private final LockingLazyVar<Map<IFile, String>> _jsFileToName = new LockingLazyVar<Map<IFile, String>>()
@@ -144,6 +152,22 @@ public class JavascriptPlugin extends TypeLoaderBase
   public JavascriptPlugin( IModule currentModule )
   {
     super( currentModule );
+    CodeCache.init();
+    //start warming up engines before the first javascript type is loaded
+    EngineSupply.forKind( EngineKind.PROGRAM );
+    EngineSupply.forKind( EngineKind.CLASS );
+    EngineSupply.forKind( EngineKind.TEMPLATE );
+  }
+
+  /*Returns the engine hosting every type of the given kind in this module. Kinds configured with the same engine
+   *options share one engine*/
+  public ScriptEngine getModuleEngine( EngineKind kind )
+  {
+    synchronized( _moduleEngines )
+    {
+      return _moduleEngines.computeIfAbsent( Arrays.asList( EngineOptions.forKind( kind ) ),
+                                             options -> EngineSupply.forKind( kind ).borrow() );
+    }
   }
 
   @Override
@@ -161,7 +185,8 @@ public class JavascriptPlugin extends TypeLoaderBase
         }
       }
       else {
-          Parser parser = new Parser(new Tokenizer(StreamUtil.getContent(new InputStreamReader(iFile.openInputStream()))));
+          Parser parser = new Parser(new Tokenizer(StreamUtil.getContent(new InputStreamReader(iFile.openInputStream()))),
+                                     SupertypeCache::hasMethod);
           ProgramNode programNode = (ProgramNode) parser.parse();
 
           if (programNode.errorCount() > 0) {
@@ -268,6 +293,7 @@ public class JavascriptPlugin extends TypeLoaderBase
   {
     _nameToJSFile.clear();
     _jsFileToName.clear();
+    SupertypeCache.clear();
   }
 
   @Override
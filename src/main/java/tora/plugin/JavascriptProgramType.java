@@ -2,21 +2,34 @@ package tora.plugin;
 
 import gw.fs.IFile;
 import gw.lang.reflect.ITypeInfo;
+import gw.util.concurrent.LockingLazyVar;
 import tora.parser.tree.ProgramNode;
 
 public class JavascriptProgramType extends JavascriptTypeBase
 {
-  private final JavascriptProgramTypeInfo _typeinfo;
+  private final LockingLazyVar<JavascriptProgramTypeInfo> _typeinfo;
 
   public JavascriptProgramType(JavascriptPlugin typeloader, String name, IFile jsFile, ProgramNode programNode)
   {
     super( typeloader, name, jsFile );
-    _typeinfo = new JavascriptProgramTypeInfo( this, programNode );
+    _typeinfo = new LockingLazyVar<JavascriptProgramTypeInfo>()
+    {
+      @Override
+      protected JavascriptProgramTypeInfo init()
+      {
+        return new JavascriptProgramTypeInfo( JavascriptProgramType.this, programNode );
+      }
+    };
   }
 
   @Override
   public ITypeInfo getTypeInfo()
   {
-    return _typeinfo;
+    return _typeinfo.get();
+  }
+
+  boolean isTypeInfoLoaded()
+  {
+    return _typeinfo.isLoaded();
   }
 }
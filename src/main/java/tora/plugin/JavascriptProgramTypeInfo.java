@@ -2,69 +2,49 @@ package tora.plugin;
 
 import gw.config.CommonServices;
 import gw.lang.reflect.BaseTypeInfo;
-import gw.lang.reflect.IExpando;
 import gw.lang.reflect.IMethodInfo;
 import gw.lang.reflect.IType;
 import gw.lang.reflect.ITypeInfo;
 import gw.lang.reflect.MethodInfoBuilder;
 import gw.lang.reflect.MethodList;
-import gw.lang.reflect.TypeSystem;
 import gw.util.GosuExceptionUtil;
+import tora.engine.EngineKind;
+import tora.engine.EngineOptions;
 import tora.parser.tree.FunctionNode;
 import tora.parser.tree.ParameterNode;
 import tora.parser.tree.ProgramNode;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-
 
 public class JavascriptProgramTypeInfo extends BaseTypeInfo implements ITypeInfo
 {
-  private final ScriptEngine _engine;
+  private final JavascriptRuntime _runtime;
   private final MethodList _methods;
+  private final MethodIndex _methodIndex;
 
   public JavascriptProgramTypeInfo(JavascriptProgramType javascriptType, ProgramNode programNode)
   {
     super( javascriptType );
-    String source = programNode.genCode();
-    try
-    {
-      // init runtime
-      // TODO cgross - make lazy
-      _engine = new ScriptEngineManager().getEngineByName("nashorn");
-      _engine.eval( source );
-      _methods = new MethodList();
-      addMethods(programNode);
-    }
-    catch( ScriptException e )
-    {
-      throw GosuExceptionUtil.forceThrow( e );
-    }
+    _runtime = new JavascriptRuntime( javascriptType, EngineKind.PROGRAM, programNode );
+    _methods = new MethodList();
+    addMethods(programNode);
+    _methodIndex = new MethodIndex(_methods);
   }
 
-  public void addMethods(ProgramNode programNode) throws ScriptException {
-    JavascriptCoercer coercer = new JavascriptCoercer();
+  public void addMethods(ProgramNode programNode) {
+    boolean rebind = EngineOptions.isRebindFunctions(EngineKind.PROGRAM);
     for (FunctionNode node : programNode.getChildren(FunctionNode.class)) {
       try {
+        InvocationPlan plan = InvocationPlan.forFunction(node);
+        FunctionHandle function = new FunctionHandle(_runtime, node.getName(), rebind);
         _methods.add(new MethodInfoBuilder()
                 .withName(node.getName())
                 .withStatic()
                 .withParameters((node.getFirstChild(ParameterNode.class)).toParamList())
-                .withReturnType(TypeSystem.getByRelativeName(node.getReturnType()))
+                .withReturnType(plan.getReturnType())
                 .withCallHandler((ctx, args) -> {
-                  for(int i = 0 ; i < args.length; i ++) {
-                    String paramType = node.getFirstChild(ParameterNode.class).getTypes().get(i);
-                    if(!paramType.equals("dynamic.Dynamic")) {
-                      args [i] = coercer.coerceTypesJavatoJS(args[i], paramType);
-                    }
-                  }
                   try {
-                    Object o = ((Invocable) _engine).invokeFunction(node.getName(), args);
-                    String returnType = TypeSystem.getByRelativeName(node.getReturnType()).getName();
-                    if (o == null) return  null;
-                    return coercer.coerceTypesJStoJava(o, returnType);
+                    //top level functions see the type's global as this, also in strict mode
+                    return plan.invoke(function.get(), _runtime.getGlobal(), args);
                   }
                   catch (Exception e) {
                     throw GosuExceptionUtil.forceThrow( e );
@@ -77,18 +57,10 @@ public class JavascriptProgramTypeInfo extends BaseTypeInfo implements ITypeInfo
     }
   }
 
-//  private static Object maybeExpand( Object o )
-//  {
-//    if( o instanceof ScriptObjectMirror )
-//    {
-//      return new ExpandWrapper( (ScriptObjectMirror)o );
-//    }
-//    else
-//    {
-//      return o;
-//    }
-//  }
-
+  JavascriptRuntime getRuntime()
+  {
+    return _runtime;
+  }
 
   @Override
   public MethodList getMethods()
@@ -98,57 +70,12 @@ public class JavascriptProgramTypeInfo extends BaseTypeInfo implements ITypeInfo
 
   @Override
   public IMethodInfo getCallableMethod(CharSequence strMethod, IType... params) {
-    return FIND.callableMethod( getMethods(), strMethod, params );
+    return _methodIndex.callableMethod( strMethod, params );
   }
 
   @Override
   public IMethodInfo getMethod( CharSequence methodName, IType... params )
   {
-    return FIND.method(getMethods(), methodName, params);
+    return _methodIndex.method( methodName, params );
   }
-
-//  private static class ExpandWrapper implements IExpando
-//  {
-//    private final ScriptObjectMirror _mirror;
-//
-//    public ExpandWrapper( ScriptObjectMirror o )
-//    {
-//      _mirror = o;
-//    }
-//
-//    @Override
-//    public Object getFieldValue( String field )
-//    {
-//      return _mirror.getMember( field );
-//    }
-//
-//    @Override
-//    public void setFieldValue( String field, Object value )
-//    {
-//      _mirror.setMember( field, value );
-//    }
-//
-//    @Override
-//    public void setDefaultFieldValue( String field )
-//    {
-//      // ignore
-//    }
-//
-//    @Override
-//    public Object invoke( String methodName, Object... args )
-//    {
-//      return maybeExpand(_mirror.callMember( methodName, args ));
-//    }
-//
-//    @Override
-//    public Map getMap()
-//    {
-//      HashMap map = new HashMap();
-//      for( String ownKey : _mirror.getOwnKeys( false ) )
-//      {
-//        map.put( ownKey, _mirror.getMember( ownKey ) );
-//      }
-//      return map;
-//    }
-//  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package tora.plugin;
+
+import gw.util.GosuExceptionUtil;
+import gw.util.concurrent.LockingLazyVar;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import tora.engine.CodeCache;
+import tora.engine.EngineKind;
+import tora.engine.EngineOptions;
+import tora.engine.EngineSupply;
+import tora.parser.tree.Node;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+/*The evaluated code of a javascript type. Building a type's signatures only needs its AST; the engine is borrowed
+ *and the generated code evaluated on the first call or construction.
+ *
+ *By default every type gets its own engine. When types share module engines (see EngineOptions), the type's
+ *code is evaluated in a global scope of its own on the engine its module hosts all types on, so global variables
+ *stay isolated per type while the compiler, class cache and builtins are shared*/
+public class JavascriptRuntime
+{
+  private final LockingLazyVar<ScriptObjectMirror> _global;
+  private ScriptEngine _engine;
+
+  public JavascriptRuntime( JavascriptTypeBase type, EngineKind kind, Node node )
+  {
+    _global = new LockingLazyVar<ScriptObjectMirror>()
+    {
+      @Override
+      protected ScriptObjectMirror init()
+      {
+        ScriptEngine engine;
+        ScriptContext context;
+        if( EngineOptions.isSharedPerModule( kind ) )
+        {
+          engine = ((JavascriptPlugin)type.getTypeLoader()).getModuleEngine( kind );
+          context = new SimpleScriptContext();
+          context.setBindings( engine.createBindings(), ScriptContext.ENGINE_SCOPE );
+        }
+        else
+        {
+          engine = EngineSupply.forKind( kind ).borrow();
+          context = engine.getContext();
+        }
+        _engine = engine;
+        try
+        {
+          CodeCache.eval( engine, context, type.getName(), node.genCode() );
+        }
+        catch( ScriptException e )
+        {
+          throw GosuExceptionUtil.forceThrow( e );
+        }
+        ScriptObjectMirror global = (ScriptObjectMirror)context.getBindings( ScriptContext.ENGINE_SCOPE );
+        GosuClassView.replaceImports( global, node );
+        return global;
+      }
+    };
+  }
+
+  /*Whether the type's code has been evaluated*/
+  boolean isStarted()
+  {
+    return _global.isLoaded();
+  }
+
+  /*The engine the type's code runs on*/
+  ScriptEngine getEngine()
+  {
+    getGlobal();
+    return _engine;
+  }
+
+  /*The type's global scope*/
+  public ScriptObjectMirror getGlobal()
+  {
+    return _global.get();
+  }
+
+  /*Returns a top level variable of the type's code*/
+  public Object get( String name )
+  {
+    return getGlobal().get( name );
+  }
+
+  public Object invokeFunction( String name, Object... args )
+  {
+    return getGlobal().callMember( name, args );
+  }
+}
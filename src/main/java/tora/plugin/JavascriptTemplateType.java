@@ -2,21 +2,29 @@ package tora.plugin;
 
 import gw.fs.IFile;
 import gw.lang.reflect.ITypeInfo;
+import gw.util.concurrent.LockingLazyVar;
 import tora.parser.tree.template.JSTNode;
 
 public class JavascriptTemplateType extends JavascriptTypeBase
 {
-  private final JavascriptTemplateTypeInfo _typeinfo;
+  private final LockingLazyVar<JavascriptTemplateTypeInfo> _typeinfo;
 
   public JavascriptTemplateType(JavascriptPlugin typeloader, String name, IFile jsFile, JSTNode templateNode)
   {
     super( typeloader, name, jsFile );
-    _typeinfo = new JavascriptTemplateTypeInfo(this, templateNode);
+    _typeinfo = new LockingLazyVar<JavascriptTemplateTypeInfo>()
+    {
+      @Override
+      protected JavascriptTemplateTypeInfo init()
+      {
+        return new JavascriptTemplateTypeInfo(JavascriptTemplateType.this, templateNode);
+      }
+    };
   }
 
   @Override
   public ITypeInfo getTypeInfo()
   {
-    return _typeinfo;
+    return _typeinfo.get();
   }
 }
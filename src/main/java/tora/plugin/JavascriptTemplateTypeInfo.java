@@ -2,35 +2,33 @@ package tora.plugin;
 
 import gw.lang.reflect.*;
 import gw.util.GosuExceptionUtil;
+import tora.engine.EngineKind;
 import tora.parser.tree.ParameterNode;
 import tora.parser.tree.template.RawStringNode;
 import tora.parser.tree.template.JSTNode;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class JavascriptTemplateTypeInfo extends BaseTypeInfo implements ITypeInfo
 {
-  private final ScriptEngine _engine;
+  private final JavascriptRuntime _runtime;
   private final MethodList _methods;
+  private final MethodIndex _methodIndex;
   private final JSTNode _templateNode;
 
   public JavascriptTemplateTypeInfo(JavascriptTemplateType javascriptType, JSTNode templateNode)
   {
     super( javascriptType );
     _templateNode = templateNode;
-    _engine = new ScriptEngineManager().getEngineByName("nashorn");
+    _runtime = new JavascriptRuntime(javascriptType, EngineKind.TEMPLATE, templateNode);
+    JavascriptCoercer.CoercionFunction[] paramCoercions;
     try {
-      _engine.eval(templateNode.genCode());
-    } catch (ScriptException e) {
+      paramCoercions = InvocationPlan.bindParameters(templateNode.getFirstChild(ParameterNode.class));
+    } catch (ClassNotFoundException e) {
       throw GosuExceptionUtil.forceThrow( e );
     }
-    JavascriptCoercer coercer = new JavascriptCoercer();
 
     _methods = new MethodList();
     //Only one method to render template to string
@@ -40,15 +38,11 @@ public class JavascriptTemplateTypeInfo extends BaseTypeInfo implements ITypeInf
             .withStatic()
             .withParameters(templateNode.getFirstChild(ParameterNode.class).toParamList())
             .withCallHandler( ( ctx, args ) -> {
-              for(int i = 0 ; i < args.length; i ++) {
-                String paramType = templateNode.getFirstChild(ParameterNode.class).getTypes().get(i);
-                if(!paramType.equals("dynamic.Dynamic")) {
-                  args [i] = coercer.coerceTypesJavatoJS(args[i], paramType);
-                }
-              }
-                return renderToString(args);
+              InvocationPlan.coerceArguments(paramCoercions, args);
+              return renderToString(args);
               })
             .build( this ) );
+    _methodIndex = new MethodIndex(_methods);
   }
 
   //Calls the generated renderToString function with raw strings from template
@@ -61,7 +55,7 @@ public class JavascriptTemplateTypeInfo extends BaseTypeInfo implements ITypeInf
               .map(node -> node.genCode())
               .collect(Collectors.toList());
       argsWithStrings[argsWithStrings.length-1] = rawStrings;
-      String  ret = (String) ((Invocable)_engine).invokeFunction( "renderToString", argsWithStrings);
+      String  ret = (String) _runtime.invokeFunction( "renderToString", argsWithStrings);
       return ret;
     } catch (Exception e) {
       throw GosuExceptionUtil.forceThrow( e );
@@ -76,12 +70,12 @@ public class JavascriptTemplateTypeInfo extends BaseTypeInfo implements ITypeInf
 
   @Override
   public IMethodInfo getCallableMethod(CharSequence strMethod, IType... params) {
-    return FIND.callableMethod( getMethods(), strMethod, params );
+    return _methodIndex.callableMethod( strMethod, params );
   }
 
   @Override
   public IMethodInfo getMethod( CharSequence methodName, IType... params )
   {
-    return FIND.method(getMethods(), methodName, params);
+    return _methodIndex.method( methodName, params );
   }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package tora.plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*A java list as a javascript array-like: indexed access and length go straight to the list, so large lists are
+ *neither copied nor converted. The list's own methods stay callable*/
+class ListView extends JavaObjectView
+{
+  private final List<Object> _list;
+
+  @SuppressWarnings("unchecked")
+  ListView( List<?> list )
+  {
+    _list = (List<Object>)list;
+  }
+
+  @Override
+  public List<?> getObject()
+  {
+    return _list;
+  }
+
+  @Override
+  public Object getSlot( int index )
+  {
+    return hasSlot( index ) ? wrap( _list.get( index ) ) : UNDEFINED;
+  }
+
+  @Override
+  public boolean hasSlot( int index )
+  {
+    return index >= 0 && index < _list.size();
+  }
+
+  @Override
+  public void setSlot( int index, Object value )
+  {
+    if( index == _list.size() )
+    {
+      _list.add( unwrap( value ) );
+    }
+    else
+    {
+      _list.set( index, unwrap( value ) );
+    }
+  }
+
+  @Override
+  public Object getMember( String name )
+  {
+    if( name.equals( "length" ) )
+    {
+      return _list.size();
+    }
+    Object method = JavaMethods.get( _list.getClass(), name );
+    return method != null ? method : UNDEFINED;
+  }
+
+  @Override
+  public boolean hasMember( String name )
+  {
+    return name.equals( "length" ) || JavaMethods.get( _list.getClass(), name ) != null;
+  }
+
+  @Override
+  public Set<String> keySet()
+  {
+    Set<String> keys = new LinkedHashSet<>();
+    for( int i = 0; i < _list.size(); i++ )
+    {
+      keys.add( String.valueOf( i ) );
+    }
+    return keys;
+  }
+
+  @Override
+  public Collection<Object> values()
+  {
+    List<Object> values = new ArrayList<>( _list.size() );
+    for( Object element : _list )
+    {
+      values.add( wrap( element ) );
+    }
+    return values;
+  }
+
+  @Override
+  public boolean isArray()
+  {
+    return true;
+  }
+}
@@ -0,0 +1,79 @@
+package tora.plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*A java map as a javascript object: properties are the map's entries, so for..in and property access read the map
+ *directly. Names that are not keys of the map fall back to the map's methods*/
+class MapView extends JavaObjectView
+{
+  private final Map<Object, Object> _map;
+
+  @SuppressWarnings("unchecked")
+  MapView( Map<?, ?> map )
+  {
+    _map = (Map<Object, Object>)map;
+  }
+
+  @Override
+  public Map<?, ?> getObject()
+  {
+    return _map;
+  }
+
+  @Override
+  public Object getMember( String name )
+  {
+    Object value = _map.get( name );
+    if( value != null || _map.containsKey( name ) )
+    {
+      return wrap( value );
+    }
+    Object method = JavaMethods.get( _map.getClass(), name );
+    return method != null ? method : UNDEFINED;
+  }
+
+  @Override
+  public void setMember( String name, Object value )
+  {
+    _map.put( name, unwrap( value ) );
+  }
+
+  @Override
+  public boolean hasMember( String name )
+  {
+    return _map.containsKey( name ) || JavaMethods.get( _map.getClass(), name ) != null;
+  }
+
+  @Override
+  public void removeMember( String name )
+  {
+    _map.remove( name );
+  }
+
+  @Override
+  public Set<String> keySet()
+  {
+    Set<String> keys = new LinkedHashSet<>();
+    for( Object key : _map.keySet() )
+    {
+      keys.add( String.valueOf( key ) );
+    }
+    return keys;
+  }
+
+  @Override
+  public Collection<Object> values()
+  {
+    List<Object> values = new ArrayList<>();
+    for( Object value : _map.values() )
+    {
+      values.add( wrap( value ) );
+    }
+    return values;
+  }
+}
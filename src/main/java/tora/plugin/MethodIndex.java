@@ -0,0 +1,52 @@
+package tora.plugin;
+
+import gw.lang.reflect.IMethodInfo;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.ITypeInfo;
+import gw.lang.reflect.MethodList;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/*The methods of a javascript type by name and parameter count, built with the type info so member lookups only
+ *match parameter types among methods that could apply*/
+class MethodIndex
+{
+  private final MethodList _methods;
+  private final Map<String, Map<Integer, MethodList>> _byName = new HashMap<>();
+
+  MethodIndex( MethodList methods )
+  {
+    _methods = methods;
+    for( IMethodInfo method : methods )
+    {
+      _byName.computeIfAbsent( method.getDisplayName(), name -> new HashMap<>() )
+        .computeIfAbsent( method.getParameters().length, arity -> new MethodList() )
+        .add( method );
+    }
+  }
+
+  MethodList getMethods()
+  {
+    return _methods;
+  }
+
+  IMethodInfo method( CharSequence name, IType... params )
+  {
+    MethodList candidates = candidates( name, params );
+    return candidates == null ? null : ITypeInfo.FIND.method( candidates, name, params );
+  }
+
+  IMethodInfo callableMethod( CharSequence name, IType... params )
+  {
+    MethodList candidates = candidates( name, params );
+    return candidates == null ? null : ITypeInfo.FIND.callableMethod( candidates, name, params );
+  }
+
+  private MethodList candidates( CharSequence name, IType... params )
+  {
+    Map<Integer, MethodList> byArity = _byName.getOrDefault( name.toString(), Collections.emptyMap() );
+    return byArity.get( params == null ? 0 : params.length );
+  }
+}
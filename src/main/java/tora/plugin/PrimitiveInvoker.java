@@ -0,0 +1,235 @@
+package tora.plugin;
+
+import gw.util.GosuExceptionUtil;
+import jdk.nashorn.api.scripting.JSObject;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*The call path of a javascript function whose parameters and return type are all primitives, e.g.
+ *function add(a : int, b : int) : int. It is one method handle chain, built once per function, that passes the
+ *arguments as they are, calls the function and converts its result straight to the declared primitive. Nothing goes
+ *through the coercer or the views. The result is unboxed to the primitive and boxed again for the Gosu call handler.
+ *
+ *Nashorn's public API only calls functions with an Object[] of boxed arguments, so arguments stay boxed*/
+final class PrimitiveInvoker
+{
+  private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+  private static final MethodHandle CALL;
+  private static final MethodHandle TO_NUMBER;
+  private static final MethodHandle TO_LONG;
+  private static final MethodHandle TO_CHAR;
+  private static final MethodHandle TO_BOOLEAN;
+  private static final MethodHandle WIDEN_ARGUMENTS;
+
+  static
+  {
+    for( Class<?> type : new Class<?>[]{boolean.class, byte.class, short.class, char.class, int.class, long.class,
+                                        float.class, double.class, void.class} )
+    {
+      PRIMITIVES.put( type.getName(), type );
+    }
+    try
+    {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      CALL = lookup.findVirtual( JSObject.class, "call",
+                                 MethodType.methodType( Object.class, Object.class, Object[].class ) );
+      TO_NUMBER = lookup.findStatic( PrimitiveInvoker.class, "toNumber",
+                                     MethodType.methodType( double.class, Object.class ) );
+      TO_LONG = lookup.findStatic( PrimitiveInvoker.class, "toLong",
+                                   MethodType.methodType( long.class, Object.class ) );
+      TO_CHAR = lookup.findStatic( PrimitiveInvoker.class, "toChar",
+                                   MethodType.methodType( char.class, Object.class ) );
+      TO_BOOLEAN = lookup.findStatic( PrimitiveInvoker.class, "toBoolean",
+                                      MethodType.methodType( boolean.class, Object.class ) );
+      WIDEN_ARGUMENTS = lookup.findStatic( PrimitiveInvoker.class, "widenArguments",
+                                           MethodType.methodType( Object[].class, Class[].class, Object[].class ) );
+    }
+    catch( ReflectiveOperationException e )
+    {
+      throw new ExceptionInInitializerError( e );
+    }
+  }
+
+  private final MethodHandle _invoker;
+
+  private PrimitiveInvoker( MethodHandle invoker )
+  {
+    _invoker = invoker;
+  }
+
+  /*Returns the invoker for the given parameter and return type names, or null if any of them is not a primitive*/
+  static PrimitiveInvoker forTypes( List<String> paramTypes, String returnType )
+  {
+    Class<?> returnClass = PRIMITIVES.get( returnType );
+    if( returnClass == null )
+    {
+      return null;
+    }
+    Class<?>[] widenTo = new Class<?>[paramTypes.size()];
+    boolean widen = false;
+    for( int i = 0; i < widenTo.length; i++ )
+    {
+      Class<?> paramClass = PRIMITIVES.get( paramTypes.get( i ) );
+      if( paramClass == null || paramClass == void.class )
+      {
+        return null;
+      }
+      widenTo[i] = jsType( paramClass );
+      widen |= widenTo[i] != null;
+    }
+    MethodHandle invoker = CALL;
+    if( widen )
+    {
+      invoker = MethodHandles.filterArguments( invoker, 2, WIDEN_ARGUMENTS.bindTo( widenTo ) );
+    }
+    invoker = MethodHandles.filterReturnValue( invoker, returnFilter( returnClass ) );
+    return new PrimitiveInvoker( invoker );
+  }
+
+  Object invoke( JSObject function, Object thiz, Object[] args )
+  {
+    try
+    {
+      return (Object)_invoker.invokeExact( function, thiz, args );
+    }
+    catch( Throwable t )
+    {
+      throw GosuExceptionUtil.forceThrow( t );
+    }
+  }
+
+  //javascript numbers are Integers or Doubles; other primitives are passed as the closest of those or as a string
+  private static Class<?> jsType( Class<?> primitive )
+  {
+    if( primitive == byte.class || primitive == short.class )
+    {
+      return Integer.class;
+    }
+    if( primitive == float.class )
+    {
+      return Double.class;
+    }
+    if( primitive == char.class )
+    {
+      return String.class;
+    }
+    return null;
+  }
+
+  //Converts the result to the declared primitive without boxing it on the way, then boxes it once for Gosu
+  private static MethodHandle returnFilter( Class<?> returnClass )
+  {
+    MethodHandle filter;
+    if( returnClass == void.class )
+    {
+      filter = MethodHandles.dropArguments( MethodHandles.constant( Object.class, null ), 0, Object.class );
+    }
+    else if( returnClass == boolean.class )
+    {
+      filter = TO_BOOLEAN;
+    }
+    else if( returnClass == char.class )
+    {
+      filter = TO_CHAR;
+    }
+    else if( returnClass == long.class )
+    {
+      filter = TO_LONG;
+    }
+    else
+    {
+      filter = MethodHandles.explicitCastArguments( TO_NUMBER, MethodType.methodType( returnClass, Object.class ) );
+    }
+    return filter.asType( MethodType.methodType( Object.class, Object.class ) );
+  }
+
+  //Results that are not numbers fail, as they do when the coercer hands them to Gosu, rather than becoming 0
+  private static double toNumber( Object o )
+  {
+    if( o instanceof Number )
+    {
+      return ((Number)o).doubleValue();
+    }
+    throw notA( "number", o );
+  }
+
+  //Longs, e.g. from java methods called by the function, are not passed through double, which would round them
+  private static long toLong( Object o )
+  {
+    if( o instanceof Number )
+    {
+      return ((Number)o).longValue();
+    }
+    throw notA( "number", o );
+  }
+
+  //Characters are passed to javascript as one character strings, and come back as those or as char codes
+  private static char toChar( Object o )
+  {
+    if( o instanceof CharSequence && ((CharSequence)o).length() == 1 )
+    {
+      return ((CharSequence)o).charAt( 0 );
+    }
+    if( o instanceof Character )
+    {
+      return (Character)o;
+    }
+    if( o instanceof Number )
+    {
+      return (char)((Number)o).intValue();
+    }
+    throw notA( "char", o );
+  }
+
+  private static ClassCastException notA( String type, Object o )
+  {
+    String value = ScriptObjectMirror.isUndefined( o ) ? "undefined" : String.valueOf( o );
+    return new ClassCastException( "Javascript result " + value + " is not a " + type );
+  }
+
+  private static boolean toBoolean( Object o )
+  {
+    if( o instanceof Boolean )
+    {
+      return (Boolean)o;
+    }
+    if( o instanceof Number )
+    {
+      double d = ((Number)o).doubleValue();
+      return d != 0 && !Double.isNaN( d );
+    }
+    if( o instanceof CharSequence )
+    {
+      return ((CharSequence)o).length() > 0;
+    }
+    return o != null && !ScriptObjectMirror.isUndefined( o );
+  }
+
+  private static Object[] widenArguments( Class<?>[] widenTo, Object[] args )
+  {
+    int count = Math.min( args.length, widenTo.length );
+    for( int i = 0; i < count; i++ )
+    {
+      Object arg = args[i];
+      if( widenTo[i] == Integer.class && arg instanceof Number )
+      {
+        args[i] = ((Number)arg).intValue();
+      }
+      else if( widenTo[i] == Double.class && arg instanceof Number )
+      {
+        args[i] = ((Number)arg).doubleValue();
+      }
+      else if( widenTo[i] == String.class && arg != null )
+      {
+        args[i] = arg.toString();
+      }
+    }
+    return args;
+  }
+}
@@ -0,0 +1,91 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/*A javascript array returned to java as a list, without copying. Elements are read from the array as they are asked
+ *for. toArray converts the whole array in the engine at once, and iteration goes through it, so an iteration sees
+ *the array as it was when the iteration started*/
+class ScriptArrayList extends AbstractList<Object> implements RandomAccess
+{
+  private final ScriptObjectMirror _array;
+
+  ScriptArrayList( ScriptObjectMirror array )
+  {
+    _array = array;
+  }
+
+  @Override
+  public Object get( int index )
+  {
+    int size = size();
+    if( index < 0 || index >= size )
+    {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+    }
+    return JavaObjectView.unwrap( _array.getSlot( index ) );
+  }
+
+  @Override
+  public Object set( int index, Object element )
+  {
+    Object previous = get( index );
+    _array.setSlot( index, JavaObjectView.wrap( element ) );
+    return previous;
+  }
+
+  @Override
+  public int size()
+  {
+    return ((Number)_array.getMember( "length" )).intValue();
+  }
+
+  @Override
+  public Object[] toArray()
+  {
+    Object[] elements = _array.to( Object[].class );
+    for( int i = 0; i < elements.length; i++ )
+    {
+      elements[i] = JavaObjectView.unwrap( elements[i] );
+    }
+    return elements;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T[] toArray( T[] a )
+  {
+    Object[] elements = toArray();
+    if( a.length < elements.length )
+    {
+      a = (T[])Array.newInstance( a.getClass().getComponentType(), elements.length );
+    }
+    System.arraycopy( elements, 0, a, 0, elements.length );
+    if( a.length > elements.length )
+    {
+      a[elements.length] = null;
+    }
+    return a;
+  }
+
+  @Override
+  public Iterator<Object> iterator()
+  {
+    return Arrays.asList( toArray() ).iterator();
+  }
+
+  @Override
+  public void forEach( Consumer<? super Object> action )
+  {
+    for( Object element : toArray() )
+    {
+      action.accept( element );
+    }
+  }
+}
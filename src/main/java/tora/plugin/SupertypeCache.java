@@ -0,0 +1,180 @@
+package tora.plugin;
+
+import gw.lang.reflect.IMethodCallHandler;
+import gw.lang.reflect.IMethodInfo;
+import gw.lang.reflect.IParameterInfo;
+import gw.lang.reflect.IType;
+import gw.lang.reflect.ITypeInfo;
+import gw.lang.reflect.MethodInfoBuilder;
+import gw.lang.reflect.ParameterInfoBuilder;
+import gw.lang.reflect.TypeSystem;
+import gw.util.GosuExceptionUtil;
+import gw.util.concurrent.LockingLazyVar;
+import tora.parser.tree.ClassNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*The java types javascript classes extend, looked up once and shared by every class extending the same type and by
+ *the parser, which checks method names to find overrides. The method names and inherited methods of a supertype are
+ *only collected when first asked for. Cleared when types are refreshed*/
+public class SupertypeCache
+{
+  private static final Map<String, Supertype> SUPERTYPES = new ConcurrentHashMap<>();
+
+  /*Returns the supertype with the given full name, or null if there is no such type*/
+  public static Supertype get( String fullName )
+  {
+    Supertype supertype = SUPERTYPES.get( fullName );
+    if( supertype == null )
+    {
+      IType type = TypeSystem.getByFullName( fullName );
+      if( type == null )
+      {
+        return null;
+      }
+      supertype = SUPERTYPES.computeIfAbsent( fullName, name -> new Supertype( type ) );
+    }
+    return supertype;
+  }
+
+  /*Supertype lookup for the parser*/
+  public static boolean hasMethod( String fullName, String methodName )
+  {
+    Supertype supertype = get( fullName );
+    return supertype != null && supertype.hasMethod( methodName );
+  }
+
+  public static void clear()
+  {
+    SUPERTYPES.clear();
+  }
+
+  public static class Supertype
+  {
+    private final LockingLazyVar<Set<String>> _methodNames;
+    private final LockingLazyVar<Map<String, List<InheritedMethod>>> _methods;
+
+    private Supertype( IType type )
+    {
+      _methodNames = new LockingLazyVar<Set<String>>()
+      {
+        @Override
+        protected Set<String> init()
+        {
+          Set<String> names = new HashSet<>();
+          for( IMethodInfo method : type.getTypeInfo().getMethods() )
+          {
+            names.add( method.getDisplayName() );
+          }
+          return names;
+        }
+      };
+      _methods = new LockingLazyVar<Map<String, List<InheritedMethod>>>()
+      {
+        @Override
+        protected Map<String, List<InheritedMethod>> init()
+        {
+          Map<String, List<InheritedMethod>> methods = new LinkedHashMap<>();
+          for( IMethodInfo method : parameterize( type ).getTypeInfo().getMethods() )
+          {
+            methods.computeIfAbsent( method.getDisplayName(), name -> new ArrayList<>() )
+              .add( new InheritedMethod( method ) );
+          }
+          return methods;
+        }
+      };
+    }
+
+    /*Generic supertypes are extended with dynamic type arguments*/
+    private static IType parameterize( IType type )
+    {
+      if( !type.isGenericType() )
+      {
+        return type;
+      }
+      IType[] typeParams = new IType[type.getGenericTypeVariables().length];
+      for( int i = 0; i < typeParams.length; i++ )
+      {
+        typeParams[i] = TypeSystem.getByFullName( "dynamic.Dynamic" );
+      }
+      return type.getParameterizedType( typeParams );
+    }
+
+    public boolean hasMethod( String name )
+    {
+      return _methodNames.get().contains( name );
+    }
+
+    public List<InheritedMethod> getMethods( String name )
+    {
+      if( !hasMethod( name ) )
+      {
+        return Collections.emptyList();
+      }
+      return _methods.get().getOrDefault( name, Collections.emptyList() );
+    }
+
+    public Iterable<String> getMethodNames()
+    {
+      return _methods.get().keySet();
+    }
+  }
+
+  /*A method of a supertype, called on the supertype object of a javascript instance. Method infos are built for
+   *each extending class, the parameters and call handler are shared*/
+  public static class InheritedMethod
+  {
+    private final IMethodInfo _method;
+    private final ParameterInfoBuilder[] _params;
+    private final IMethodCallHandler _handler;
+
+    private InheritedMethod( IMethodInfo method )
+    {
+      _method = method;
+      _params = makeInheritedParamList( method );
+      IMethodCallHandler handler = method.getCallHandler();
+      _handler = ( ctx, args ) -> {
+        try
+        {
+          //Call the method on the superclass (which exists as a property object for now)
+          Object superClass = JavascriptClassTypeInfo.toScriptObject( ctx ).getMember( ClassNode.SUPERTYPE_OBJECT );
+          return handler.handleCall( superClass, args );
+        }
+        catch( Exception e )
+        {
+          throw GosuExceptionUtil.forceThrow( e );
+        }
+      };
+    }
+
+    public IMethodInfo build( ITypeInfo owner )
+    {
+      return new MethodInfoBuilder()
+        .withName( _method.getDisplayName() )
+        .withParameters( _params )
+        .withStatic( _method.isStatic() )
+        .withReturnType( _method.getReturnType() )
+        .withCallHandler( _handler )
+        .build( owner );
+    }
+
+    /*Construct a parameter list for inherited parameters*/
+    private static ParameterInfoBuilder[] makeInheritedParamList( IMethodInfo method )
+    {
+      IParameterInfo[] params = method.getParameters();
+      ParameterInfoBuilder[] parameterInfoBuilders = new ParameterInfoBuilder[params.length];
+      for( int i = 0; i < params.length; i++ )
+      {
+        parameterInfoBuilders[i] = new ParameterInfoBuilder().like( params[i] );
+      }
+      return parameterInfoBuilders;
+    }
+  }
+}
@@ -0,0 +1,287 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.AbstractJSObject;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*An nio buffer as a javascript typed array: indexed access and length read and write the buffer directly, so numeric
+ *data in heap or direct buffers reaches javascript without copying. DoubleBuffers behave as a Float64Array,
+ *IntBuffers as an Int32Array and ByteBuffers as a Uint8Array. A ByteBuffer view can be reinterpreted with
+ *asFloat64Array() and asInt32Array(), which share its memory and byte order. Other names fall back to the methods of
+ *the buffer.
+ *
+ *Java arrays are not wrapped: nashorn links element access on them directly, which TypedArrayBenchmark shows to be
+ *faster than going through a view*/
+abstract class TypedArrayView extends JavaObjectView
+{
+  private final Object _object;
+  private final Class<?> _methods;
+
+  TypedArrayView( Object object, Class<?> methods )
+  {
+    _object = object;
+    _methods = methods;
+  }
+
+  static TypedArrayView forObject( Object o )
+  {
+    if( o instanceof DoubleBuffer )
+    {
+      return new Float64( o, ((DoubleBuffer)o).slice() );
+    }
+    if( o instanceof IntBuffer )
+    {
+      return new Int32( o, ((IntBuffer)o).slice() );
+    }
+    if( o instanceof ByteBuffer )
+    {
+      return new Uint8( (ByteBuffer)o );
+    }
+    return null;
+  }
+
+  @Override
+  public Object getObject()
+  {
+    return _object;
+  }
+
+  abstract Buffer buffer();
+
+  abstract int bytesPerElement();
+
+  @Override
+  public boolean hasSlot( int index )
+  {
+    return index >= 0 && index < buffer().limit();
+  }
+
+  @Override
+  public Object getMember( String name )
+  {
+    switch( name )
+    {
+      case "length":
+        return buffer().limit();
+      case "byteLength":
+        return buffer().limit() * bytesPerElement();
+      case "BYTES_PER_ELEMENT":
+        return bytesPerElement();
+    }
+    Object method = JavaMethods.get( _methods, name );
+    return method != null ? method : UNDEFINED;
+  }
+
+  @Override
+  public boolean hasMember( String name )
+  {
+    return getMember( name ) != UNDEFINED;
+  }
+
+  @Override
+  public Set<String> keySet()
+  {
+    Set<String> keys = new LinkedHashSet<>();
+    for( int i = 0; i < buffer().limit(); i++ )
+    {
+      keys.add( String.valueOf( i ) );
+    }
+    return keys;
+  }
+
+  @Override
+  public Collection<Object> values()
+  {
+    List<Object> values = new ArrayList<>( buffer().limit() );
+    for( int i = 0; i < buffer().limit(); i++ )
+    {
+      values.add( getSlot( i ) );
+    }
+    return values;
+  }
+
+  @Override
+  public boolean isArray()
+  {
+    return true;
+  }
+
+  private static double toDouble( Object value )
+  {
+    return value instanceof Number ? ((Number)value).doubleValue() : Double.NaN;
+  }
+
+  private static int toInt( Object value )
+  {
+    return value instanceof Number ? ((Number)value).intValue() : 0;
+  }
+
+  private static class Float64 extends TypedArrayView
+  {
+    private final DoubleBuffer _buffer;
+
+    Float64( Object object, DoubleBuffer buffer )
+    {
+      super( object, DoubleBuffer.class );
+      _buffer = buffer;
+    }
+
+    @Override
+    Buffer buffer()
+    {
+      return _buffer;
+    }
+
+    @Override
+    int bytesPerElement()
+    {
+      return Double.BYTES;
+    }
+
+    @Override
+    public Object getSlot( int index )
+    {
+      return hasSlot( index ) ? _buffer.get( index ) : UNDEFINED;
+    }
+
+    @Override
+    public void setSlot( int index, Object value )
+    {
+      if( hasSlot( index ) )
+      {
+        _buffer.put( index, toDouble( value ) );
+      }
+    }
+  }
+
+  private static class Int32 extends TypedArrayView
+  {
+    private final IntBuffer _buffer;
+
+    Int32( Object object, IntBuffer buffer )
+    {
+      super( object, IntBuffer.class );
+      _buffer = buffer;
+    }
+
+    @Override
+    Buffer buffer()
+    {
+      return _buffer;
+    }
+
+    @Override
+    int bytesPerElement()
+    {
+      return Integer.BYTES;
+    }
+
+    @Override
+    public Object getSlot( int index )
+    {
+      return hasSlot( index ) ? _buffer.get( index ) : UNDEFINED;
+    }
+
+    @Override
+    public void setSlot( int index, Object value )
+    {
+      if( hasSlot( index ) )
+      {
+        _buffer.put( index, toInt( value ) );
+      }
+    }
+  }
+
+  private static class Uint8 extends TypedArrayView
+  {
+    private final ByteBuffer _buffer;
+
+    Uint8( ByteBuffer buffer )
+    {
+      super( buffer, ByteBuffer.class );
+      _buffer = buffer.slice().order( buffer.order() );
+    }
+
+    @Override
+    Buffer buffer()
+    {
+      return _buffer;
+    }
+
+    @Override
+    int bytesPerElement()
+    {
+      return Byte.BYTES;
+    }
+
+    @Override
+    public Object getSlot( int index )
+    {
+      return hasSlot( index ) ? _buffer.get( index ) & 0xFF : UNDEFINED;
+    }
+
+    @Override
+    public void setSlot( int index, Object value )
+    {
+      if( hasSlot( index ) )
+      {
+        _buffer.put( index, (byte)toInt( value ) );
+      }
+    }
+
+    @Override
+    public Object getMember( String name )
+    {
+      switch( name )
+      {
+        case "asFloat64Array":
+          return new Reinterpret( () -> {
+            DoubleBuffer doubles = _buffer.asDoubleBuffer();
+            return new Float64( doubles, doubles );
+          } );
+        case "asInt32Array":
+          return new Reinterpret( () -> {
+            IntBuffer ints = _buffer.asIntBuffer();
+            return new Int32( ints, ints );
+          } );
+      }
+      return super.getMember( name );
+    }
+  }
+
+  private interface ViewFactory
+  {
+    TypedArrayView create();
+  }
+
+  /*asFloat64Array() and asInt32Array() of a ByteBuffer view*/
+  private static class Reinterpret extends AbstractJSObject
+  {
+    private final ViewFactory _factory;
+
+    Reinterpret( ViewFactory factory )
+    {
+      _factory = factory;
+    }
+
+    @Override
+    public Object call( Object thiz, Object... args )
+    {
+      return _factory.create();
+    }
+
+    @Override
+    public boolean isFunction()
+    {
+      return true;
+    }
+  }
+}
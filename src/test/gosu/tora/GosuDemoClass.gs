@@ -5,6 +5,12 @@ package tora
  */
 class GosuDemoClass {
 
+  var _count : int as Count
+
+  property get Name() : String {
+    return "demo"
+  }
+
   static function staticFoo() : int {
     return 43;
   }
@@ -12,4 +18,12 @@ class GosuDemoClass {
   function doubleInput(x:int): int {
     return x * 2;
   }
+
+  function describe(x:int): String {
+    return "int"
+  }
+
+  function describe(s:String): String {
+    return "string"
+  }
 }
\ No newline at end of file
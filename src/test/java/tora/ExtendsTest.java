@@ -57,6 +57,13 @@ public class ExtendsTest {
         assertEquals(6, eval("var extended = new ExtendsClass(); extended.anotherAdd(6); return extended.get(0)"));
     }
 
+    @Test
+    public void superIsBoundPerInstance() {
+        assertEquals(1, eval("var first = new ExtendsClass(); var second = new ExtendsClass(); " +
+                "first.anotherAdd(1); first.anotherAdd(2); second.anotherAdd(3); " +
+                "return second.get(0) == 3 ? second.size() - 1 : -1"));
+    }
+
     @Test
     public void overloadedInheritedMethod() {
         /*remove can either take an object or an index*/
@@ -73,6 +80,22 @@ public class ExtendsTest {
                 "return extended.where(\\s -> s > 2)[0]"));
     }
 
+    @Test
+    public void classAsComparator() {
+        assertEquals(3, eval("var list = {1, 3, 2}; " +
+                "java.util.Collections.sort(list, new Descending()); " +
+                "return list[0]"));
+    }
+
+    @Test
+    public void extendsAndImplements() {
+        assertEquals(true, eval("var sorted = new SortedList(); " +
+                "return (sorted as Object) typeis java.util.ArrayList and (sorted as Object) typeis java.util.Comparator"));
+        assertEquals(1, eval("var sorted = new SortedList(); " +
+                "sorted.addSorted(3); sorted.addSorted(1); sorted.addSorted(2); " +
+                "return sorted.get(0)"));
+    }
+
     private Object eval( String program )
     {
         IGosuProgramParser programParser = CommonServices.getGosuParserFactory().createProgramParser();
@@ -11,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import javax.script.ScriptException;
+import java.util.Collection;
 import java.util.HashMap;
 
 import static junit.framework.TestCase.assertEquals;
@@ -26,6 +27,14 @@ public class ImportingJavaClassTest
     public String returnHello() {
       return "hello";
     }
+
+    public static int count(Collection<?> collection) {
+      return collection.size();
+    }
+
+    public static String className(Object o) {
+      return o.getClass().getName();
+    }
   }
 
   @BeforeClass
@@ -51,6 +60,47 @@ public class ImportingJavaClassTest
     assertEquals(42, eval("return ImportProgram.javaFoo()"));
   }
 
+  @Test
+  public void testGosuObjectPassedToJavascript() throws ScriptException {
+    assertEquals(57, ((Number) eval("return ImportProgram.gosuEnhancement(new tora.GosuDemoClass(), 5)")).intValue());
+    assertEquals(9900, ((Number) eval("return ImportProgram.gosuLoop(new tora.GosuDemoClass(), 100)")).intValue());
+    assertEquals(true, eval("var gosuObject = new tora.GosuDemoClass(); return ImportProgram.gosuIdentity(gosuObject) === gosuObject"));
+  }
+
+  @Test
+  public void testGosuObjectMembersFromJavascript() throws ScriptException {
+    assertEquals("string,int", eval("return ImportProgram.gosuOverloads(new tora.GosuDemoClass())"));
+    assertEquals(4, eval("var gosuObject = new tora.GosuDemoClass(); ImportProgram.gosuSetCount(gosuObject, 8); return gosuObject.Count"));
+    assertEquals(true, eval("return ImportProgram.gosuSetFails(new tora.GosuDemoClass(), \"Name\")"));
+    assertEquals(true, eval("return ImportProgram.gosuSetFails(new tora.GosuDemoClass(), \"Missing\")"));
+  }
+
+  @Test
+  public void testOverloadsInALoop() throws ScriptException {
+    assertEquals("50:50", eval("return ImportProgram.gosuOverloadLoop(new tora.GosuDemoClass(), 100)"));
+  }
+
+  @Test
+  public void testImportedGosuClassMembers() throws ScriptException {
+    //Imported Gosu classes are views too, so the objects they create see enhancements
+    assertEquals(91, ((Number) eval("return ImportProgram.importedGosuClass()")).intValue());
+    assertEquals(true, eval("return ImportProgram.importedGosuInstance()"));
+    assertEquals(70, eval("var imported = new ImportClass(); return imported.gosuDouble (35)"));
+  }
+
+  @Test
+  public void testTypedArgumentsHandedToJava() throws ScriptException {
+    //Parameters declared with a type other than List, Map or a Gosu class are not viewed, so javascript can pass them on to java
+    assertEquals(3, eval("return ImportProgram.listToJava({1, 2, 3})"));
+    assertEquals("tora.GosuDemoClass", eval("return ImportProgram.gosuToJava(new tora.GosuDemoClass())"));
+  }
+
+  @Test
+  public void testDynamicArgumentsHandedToJava() throws ScriptException {
+    //Untyped parameters are passed as the objects themselves, not as views
+    assertEquals("3:tora.GosuDemoClass", eval("return ImportProgram.dynamicToJava({1, 2, 3}, new tora.GosuDemoClass())"));
+  }
+
   private Object eval( String program )
   {
     IGosuProgramParser programParser = CommonServices.getGosuParserFactory().createProgramParser();
@@ -3,6 +3,16 @@ package tora;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 import static org.junit.Assert.*;
 import static tora.JS.*;
 
@@ -16,6 +26,24 @@ public class JSTest
     assertEquals( 2, JS.eval( "1 + 1" ) );
   }
 
+  @Test
+  public void evaluationsDoNotShareGlobals()
+  {
+    JS.eval( "var x = 1; y = 2" );
+    assertEquals( "undefined", JS.eval( "typeof x" ) );
+    assertEquals( "undefined", JS.eval( "typeof y" ) );
+  }
+
+  @Test
+  public void globalsDoNotShadowParams()
+  {
+    JSScript1<Integer, Integer> script = JS.buildScript( "foo", Integer.class, param( Integer.class, "foo" ) );
+    JS.eval( "var foo = 1" );
+    assertEquals( 2, script.eval( 2 ).intValue() );
+    JS.buildScript( "foo = 5; foo", Integer.class, param( Integer.class, "foo" ) ).eval( 3 );
+    assertEquals( 4, script.eval( 4 ).intValue() );
+  }
+
   @Test
   public void zeroArgScriptBuilding()
   {
@@ -41,4 +69,141 @@ public class JSTest
     assertEquals( new Double(1.0/3.0), script.eval(3, 1) );
   }
 
+  @Test
+  public void concurrentScriptEvaluation() throws Exception
+  {
+    JSScript2<Double, Integer, Integer> script = JS.buildScript( "foo * bar", Double.class,
+                                                                 param( Integer.class, "foo" ),
+                                                                 param( Integer.class, "bar" ) );
+    ExecutorService executor = Executors.newFixedThreadPool( 4 );
+    try
+    {
+      List<Future<Double>> results = new ArrayList<>();
+      for( int i = 0; i < 100; i++ )
+      {
+        int arg = i;
+        results.add( executor.submit( () -> script.eval( arg, 2 ) ) );
+      }
+      for( int i = 0; i < 100; i++ )
+      {
+        assertEquals( i * 2, results.get( i ).get().intValue() );
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void nArgFunctionBuilding()
+  {
+    JSFunction<Integer> function = JS.buildFunction( "a + b * c", Integer.class )
+      .withParam( Integer.class, "a" )
+      .withParam( Integer.class, "b" )
+      .withParam( Long.class, "c" )
+      .build();
+    assertEquals( 7, function.apply( 1, 2, 3L ).intValue() );
+    assertEquals( 11, function.apply( 5, 2, 3L ).intValue() );
+  }
+
+  @Test
+  public void typedFunctionBuilding()
+  {
+    Function<String, Integer> length = JS.buildFunction( "str.length", Integer.class )
+      .withParam( String.class, "str" )
+      .buildFunction();
+    assertEquals( 5, length.apply( "hello" ).intValue() );
+
+    BiFunction<Integer, Integer, String> concat = JS.buildFunction( "'' + foo + bar", String.class )
+      .withParam( Integer.class, "foo" )
+      .withParam( Integer.class, "bar" )
+      .buildBiFunction();
+    assertEquals( "12", concat.apply( 1, 2 ) );
+  }
+
+  @Test
+  public void booleanAndCharFunctionBuilding()
+  {
+    Function<Integer, Boolean> isEven = JS.buildFunction( "n % 2 == 0", boolean.class )
+      .withParam( Integer.class, "n" )
+      .buildFunction();
+    assertTrue( isEven.apply( 4 ) );
+    Function<String, Character> first = JS.buildFunction( "s.charAt(0)", char.class )
+      .withParam( String.class, "s" )
+      .buildFunction();
+    assertEquals( 'h', first.apply( "hello" ).charValue() );
+    assertEquals( 'c', JS.buildFunction( "c", Character.class ).withParam( char.class, "c" ).build().apply( 'c' ).charValue() );
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void emptyStringIsNotAChar()
+  {
+    JS.buildFunction( "''", char.class ).build().apply();
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void longerStringIsNotAChar()
+  {
+    JS.buildFunction( "'ab'", Character.class ).build().apply();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void typedFunctionArityMismatch()
+  {
+    JS.buildFunction( "1", Integer.class ).buildFunction();
+  }
+
+  @Test
+  public void oneArgBatchEvaluation()
+  {
+    JSScript1<Double, Integer> script = JS.buildScript( "2 + foo", Double.class,
+                                                        param( Integer.class, "foo" ) );
+    assertEquals( Arrays.asList( 3.0, 4.0, 5.0 ), script.evalBatch( Arrays.asList( 1, 2, 3 ) ) );
+    assertEquals( Arrays.asList( 3.0, 4.0, 5.0 ), script.evalBatch( new Integer[]{1, 2, 3} ) );
+  }
+
+  @Test
+  public void twoArgBatchEvaluation()
+  {
+    JSScript2<Double, Integer, Integer> script = JS.buildScript( "bar / foo;", Double.class,
+                                                                 param( Integer.class, "foo" ),
+                                                                 param( Integer.class, "bar" ) );
+    assertEquals( Arrays.asList( 3.0, 1.0 / 3.0 ), script.evalBatch( new Integer[]{1, 3}, new Integer[]{3, 1} ) );
+  }
+
+  @Test
+  public void statementBatchEvaluation()
+  {
+    //not a single expression, so the source is evaluated for each input
+    JSScript1<Double, Integer> script = JS.buildScript( "var x = foo * 2; x + 1", Double.class,
+                                                        param( Integer.class, "foo" ) );
+    assertEquals( Arrays.asList( 3.0, 5.0 ), script.evalBatch( Arrays.asList( 1, 2 ) ) );
+    assertFalse( script.isSingleExpression() );
+  }
+
+  @Test
+  public void batchNamesDoNotCollideWithParams()
+  {
+    JSScript2<Double, Integer, Integer> script = JS.buildScript( "$i + $out", Double.class,
+                                                                 param( Integer.class, "$i" ),
+                                                                 param( Integer.class, "$out" ) );
+    assertEquals( Arrays.asList( 11.0, 22.0 ), script.evalBatch( new Integer[]{1, 2}, new Integer[]{10, 20} ) );
+    assertTrue( script.isSingleExpression() );
+  }
+
+  @Test
+  public void asyncScriptEvaluation() throws Exception
+  {
+    JSScript2<Double, Integer, Integer> script = JS.buildScript( "bar / foo", Double.class,
+                                                                 param( Integer.class, "foo" ),
+                                                                 param( Integer.class, "bar" ) );
+    CompletableFuture<Double> first = script.evalAsync( 1, 3 );
+    CompletableFuture<Double> second = script.evalAsync( 3, 1 );
+    CompletableFuture<Integer> third = JS.buildScript( "2 + 1", Integer.class ).evalAsync();
+    assertEquals( new Double(3.0/1.0), first.get() );
+    assertEquals( new Double(1.0/3.0), second.get() );
+    assertEquals( 3, third.get().intValue() );
+  }
+
 }
@@ -55,6 +55,13 @@ public class JavascriptPluginTest
     assertEquals(40,eval("var dem = new DemoClass(); DemoClass.staticPoh = 40; return DemoClass.staticPoh"));
   }
 
+  @Test
+  public void classInstanceRoundTrip() {
+    //The instance comes back to Gosu as an expando and is handed back to javascript as itself
+    assertEquals(42, eval("var dem = new DemoClass(); var expando = dem.self(); return expando.bar()"));
+    assertEquals(true, eval("var dem = new DemoClass(); return dem.same(dem.self())"));
+  }
+
   @Test
   public void topLevelVarIsPreservedAcrossInvocations() {
     assertEquals(0.0, eval("CounterVar.nextNum()"));
@@ -145,6 +145,19 @@ public class ParameterTypingTest
         assertEquals(123.0, eval("return TypingProgram.takesInDoubleAndReturns(123)"));
     }
 
+    @Test
+    public void arrayReturnTypeTest() {
+        assertEquals(3, eval("return TypingProgram.returnsList().size()"));
+        assertEquals(2.5, eval("return TypingProgram.returnsList()[1]"));
+        assertEquals(2.5, eval("return TypingProgram.returnsDoubleArray()[1]"));
+    }
+
+    @Test
+    public void primitiveTypeTest() {
+        assertEquals(42, eval("return TypingProgram.primitiveAdd(40, 2)"));
+        assertEquals(0, eval("var n = 0; for (i in 0..100) { n = TypingProgram.primitiveAdd(n, i) }; return n - 5050"));
+    }
+
 
     private Object eval( String program )
     {
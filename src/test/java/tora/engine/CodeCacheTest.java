@@ -0,0 +1,49 @@
+package tora.engine;
+
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class CodeCacheTest
+{
+
+  @Test
+  public void disabledByDefault() throws ScriptException
+  {
+    assertFalse( CodeCache.isEnabled() );
+    assertEquals( 0, CodeCache.engineOptions().length );
+    ScriptEngine engine = EngineFactory.newEngine();
+    assertEquals( 2, CodeCache.eval( engine, engine.getContext(), "foo.Bar", "1 + 1" ) );
+    assertNull( engine.get( ScriptEngine.FILENAME ) );
+  }
+
+  @Test
+  public void namesScriptsByCodeHash() throws Exception
+  {
+    Path directory = Files.createTempDirectory( "tora-code-cache" );
+    System.setProperty( CodeCache.DIRECTORY_PROPERTY, directory.toString() );
+    try
+    {
+      CodeCache.init();
+      assertEquals( directory.toString(), System.getProperty( CodeCache.NASHORN_DIRECTORY_PROPERTY ) );
+      ScriptEngine engine = EngineFactory.newEngine( CodeCache.engineOptions() );
+      assertEquals( 42, CodeCache.eval( engine, engine.getContext(), "foo.Bar", "function answer() { return 42 } answer()" ) );
+      String name = (String)engine.get( ScriptEngine.FILENAME );
+      assertTrue( name.startsWith( "foo.Bar-" ) );
+      assertEquals( "foo.Bar-" + CodeCache.hash( "function answer() { return 42 } answer()" ) + ".js", name );
+      assertNotEquals( CodeCache.hash( "1" ), CodeCache.hash( "2" ) );
+    }
+    finally
+    {
+      System.clearProperty( CodeCache.DIRECTORY_PROPERTY );
+      System.clearProperty( CodeCache.NASHORN_DIRECTORY_PROPERTY );
+      CodeCache.init();
+    }
+  }
+
+}
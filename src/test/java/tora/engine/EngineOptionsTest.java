@@ -0,0 +1,59 @@
+package tora.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EngineOptionsTest
+{
+
+  @Test
+  public void defaultsToNashornDefaults()
+  {
+    assertEquals( 0, EngineOptions.forKind( EngineKind.SCRIPT ).length );
+  }
+
+  @Test
+  public void kindSpecificSettingsWin()
+  {
+    System.setProperty( "tora.engine.optimisticTypes", "true" );
+    System.setProperty( "tora.engine.template.optimisticTypes", "false" );
+    System.setProperty( "tora.engine.template.lazyCompilation", "true" );
+    System.setProperty( "tora.engine.classCacheSize", "16" );
+    System.setProperty( "tora.engine.program.strict", "true" );
+    try
+    {
+      assertEquals( Arrays.asList( "--optimistic-types=false", "--lazy-compilation=true", "--class-cache-size=16" ),
+                    Arrays.asList( EngineOptions.forKind( EngineKind.TEMPLATE ) ) );
+      assertEquals( Arrays.asList( "--optimistic-types=true", "--class-cache-size=16", "-strict" ),
+                    Arrays.asList( EngineOptions.forKind( EngineKind.PROGRAM ) ) );
+      assertNotNull( EngineFactory.newEngine( EngineOptions.forKind( EngineKind.PROGRAM ) ) );
+    }
+    finally
+    {
+      System.clearProperty( "tora.engine.optimisticTypes" );
+      System.clearProperty( "tora.engine.template.optimisticTypes" );
+      System.clearProperty( "tora.engine.template.lazyCompilation" );
+      System.clearProperty( "tora.engine.classCacheSize" );
+      System.clearProperty( "tora.engine.program.strict" );
+    }
+  }
+
+  @Test
+  public void supplySizePerKind()
+  {
+    System.setProperty( "tora.engineSupply.class.minIdle", "3" );
+    try
+    {
+      assertEquals( 3, EngineOptions.getInt( EngineSupply.SUPPLY_PREFIX, EngineKind.CLASS, "minIdle", 1 ) );
+      assertEquals( 1, EngineOptions.getInt( EngineSupply.SUPPLY_PREFIX, EngineKind.PROGRAM, "minIdle", 1 ) );
+    }
+    finally
+    {
+      System.clearProperty( "tora.engineSupply.class.minIdle" );
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+package tora.engine;
+
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+
+import static org.junit.Assert.*;
+
+public class EngineSupplyTest
+{
+
+  @Test
+  public void keepsMinimumIdle() throws InterruptedException
+  {
+    EngineSupply supply = new EngineSupply( 2 );
+    awaitIdle( supply, 2 );
+    ScriptEngine engine = supply.borrow();
+    assertNotNull( engine );
+    assertEquals( 1, supply.getBorrowCount() );
+    awaitIdle( supply, 2 );
+    assertEquals( 3, supply.getCreatedCount() );
+    assertEquals( 2, supply.getIdleCount() + supply.getCreatingCount() );
+  }
+
+  @Test
+  public void borrowedEnginesAreDistinct()
+  {
+    EngineSupply supply = new EngineSupply( 1 );
+    ScriptEngine first = supply.borrow();
+    ScriptEngine second = supply.borrow();
+    assertNotSame( first, second );
+    assertEquals( 2, supply.getBorrowCount() );
+    assertTrue( supply.getMaxBorrowWaitNanos() <= supply.getTotalBorrowWaitNanos() );
+  }
+
+  @Test
+  public void createsOnCallerWithoutIdleEngines()
+  {
+    EngineSupply supply = new EngineSupply( 0 );
+    assertNotNull( supply.borrow() );
+    assertEquals( 1, supply.getCreatedCount() );
+    assertEquals( 0, supply.getIdleCount() );
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNegativeMinIdle()
+  {
+    new EngineSupply( -1 );
+  }
+
+  private static void awaitIdle( EngineSupply supply, int count ) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + 30000;
+    while( supply.getIdleCount() < count && System.currentTimeMillis() < deadline )
+    {
+      Thread.sleep( 10 );
+    }
+    assertEquals( count, supply.getIdleCount() );
+  }
+
+}
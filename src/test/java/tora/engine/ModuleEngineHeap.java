@@ -0,0 +1,100 @@
+package tora.engine;
+
+import tora.parser.Parser;
+import tora.parser.Tokenizer;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleScriptContext;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/*Measures the heap a corpus of generated javascript types holds once each type has been evaluated and called, with
+ *one engine per type and with one engine for all of them, each type in its own global scope, the way
+ *JavascriptRuntime sets types up in either mode. Every second type of the corpus is a class, the others programs.
+ *
+ *Run each mode in a fresh JVM, so the other mode's classes and caches do not count:
+ *  java tora.engine.ModuleEngineHeap perType 500
+ *  java tora.engine.ModuleEngineHeap shared 500*/
+public class ModuleEngineHeap
+{
+  public static void main( String[] args ) throws Exception
+  {
+    boolean shared = args.length > 0 && args[0].equals( "shared" );
+    int size = args.length > 1 ? Integer.parseInt( args[1] ) : 500;
+
+    List<String> corpus = new ArrayList<>();
+    for( int i = 0; i < size; i++ )
+    {
+      corpus.add( new Parser( new Tokenizer( source( i ) ) ).parse().genCode() );
+    }
+    long before = usedHeap();
+    long start = System.nanoTime();
+
+    //held until the heap is measured, as the types hold their engines and globals
+    List<Object> live = new ArrayList<>();
+    ScriptEngine moduleEngine = shared ? EngineFactory.newEngine( EngineOptions.forKind( EngineKind.PROGRAM ) ) : null;
+    for( int i = 0; i < size; i++ )
+    {
+      ScriptEngine engine;
+      ScriptContext context;
+      if( shared )
+      {
+        engine = moduleEngine;
+        context = new SimpleScriptContext();
+        context.setBindings( engine.createBindings(), ScriptContext.ENGINE_SCOPE );
+      }
+      else
+      {
+        engine = EngineFactory.newEngine( EngineOptions.forKind( EngineKind.PROGRAM ) );
+        context = engine.getContext();
+      }
+      CodeCache.eval( engine, context, "HeapType" + i, corpus.get( i ) );
+      String name = "HeapType" + i;
+      Object result = engine.eval( i % 2 == 0 ? "describe()" : "new " + name + "('" + name + "').getName()", context );
+      if( !name.equals( result ) )
+      {
+        throw new IllegalStateException( name + " saw the globals of " + result );
+      }
+      live.add( engine );
+      live.add( context.getBindings( ScriptContext.ENGINE_SCOPE ) );
+    }
+    long millis = (System.nanoTime() - start) / 1000000;
+    long after = usedHeap();
+
+    System.out.println( (shared ? "shared" : "perType") + ": " + size + " types, " +
+                        (after - before) / (1024 * 1024) + " MB heap, " +
+                        ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() + " classes loaded, " +
+                        millis + " ms, " + live.size() / 2 + " types live" );
+  }
+
+  /*Programs all define the same global names, so a program that sees another's globals answers with the wrong name*/
+  private static String source( int i )
+  {
+    String name = "HeapType" + i;
+    if( i % 2 == 0 )
+    {
+      return "var name = '" + name + "';\n" +
+             "var count = " + i + ";\n" +
+             "function describe() { return name; }\n" +
+             "function add(a, b) { return a + b + count; }\n" +
+             "function squares(n) { var list = []; for (var j = 0; j < n; j++) list.push(j * j); return list; }\n";
+    }
+    return "class " + name + " {\n" +
+           "  constructor(name) { this._name = name; }\n" +
+           "  getName() { return this._name; }\n" +
+           "  add(a, b) { return a + b; }\n" +
+           "}\n";
+  }
+
+  private static long usedHeap() throws InterruptedException
+  {
+    for( int i = 0; i < 5; i++ )
+    {
+      System.gc();
+      Thread.sleep( 100 );
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
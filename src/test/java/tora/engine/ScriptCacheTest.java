@@ -0,0 +1,47 @@
+package tora.engine;
+
+import org.junit.Test;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import static org.junit.Assert.*;
+
+public class ScriptCacheTest
+{
+
+  @Test
+  public void compilesOncePerSource() throws ScriptException
+  {
+    ScriptCache cache = new ScriptCache( EngineFactory.newEngine(), 4 );
+    CompiledScript first = cache.get( "1 + 1" );
+    CompiledScript second = cache.get( "1 + 1" );
+    assertSame( first, second );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 2, first.eval() );
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() throws ScriptException
+  {
+    ScriptCache cache = new ScriptCache( EngineFactory.newEngine(), 2 );
+    CompiledScript one = cache.get( "1" );
+    cache.get( "2" );
+    cache.get( "1" ); //"2" is now the eldest entry
+    cache.get( "3" );
+    assertEquals( 2, cache.size() );
+    assertEquals( 1, cache.getEvictions() );
+    assertSame( one, cache.get( "1" ) );
+    assertEquals( 3, cache.getMisses() );
+    cache.get( "2" );
+    assertEquals( 4, cache.getMisses() );
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonPositiveSize()
+  {
+    new ScriptCache( EngineFactory.newEngine(), 0 );
+  }
+
+}
@@ -0,0 +1,75 @@
+package tora.engine;
+
+import org.junit.Test;
+import tora.JS;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class ScriptExecutorTest
+{
+
+  @Test
+  public void jobsDoNotShareGlobals() throws Exception
+  {
+    ExecutorService executor = ScriptExecutor.newExecutor( 1, 4 );
+    try
+    {
+      JS.buildScript( "var x = 1; y = 2", Object.class ).evalAsync( executor ).get();
+      assertEquals( "undefined", JS.buildScript( "typeof x", String.class ).evalAsync( executor ).get() );
+      assertEquals( "undefined", JS.buildScript( "typeof y", String.class ).evalAsync( executor ).get() );
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void rejectsWhenQueueIsFull() throws Exception
+  {
+    ExecutorService executor = ScriptExecutor.newExecutor( 1, 1 );
+    CountDownLatch started = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    try
+    {
+      //occupy the only worker, so one evaluation fits in the queue and the next is rejected
+      executor.execute( () -> {
+        started.countDown();
+        try
+        {
+          release.await();
+        }
+        catch( InterruptedException e )
+        {
+          Thread.currentThread().interrupt();
+        }
+      } );
+      started.await();
+      CompletableFuture<Integer> queued = JS.buildScript( "1", Integer.class ).evalAsync( executor );
+      CompletableFuture<Integer> rejected = JS.buildScript( "2", Integer.class ).evalAsync( executor );
+      try
+      {
+        rejected.get();
+        fail();
+      }
+      catch( ExecutionException e )
+      {
+        assertTrue( e.getCause() instanceof RejectedExecutionException );
+      }
+      release.countDown();
+      assertEquals( 1, queued.get().intValue() );
+    }
+    finally
+    {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+}
@@ -155,6 +155,78 @@ public void testStaticPropertiesInClass() {
 
   }
 
+  //Parses a class extending ArrayList, whose size method is the only override
+  private String genExtendsArrayList(String body) {
+    String code = "import java.util.ArrayList\nclass Sub extends ArrayList {" + body + "}";
+    SupertypeLookup lookup = (supertype, method) -> method.equals("size");
+    return new Parser(new Tokenizer(code), lookup).parse().genCode();
+  }
+
+  @Test
+  public void testClassLevelOverrides() throws ScriptException {
+    //Overrides that do not use this or super are given once, when the class extends its supertype
+    String code = genExtendsArrayList("size(){ return 42; }");
+    Assert.assertTrue(code.contains("Java.extend(_ArrayList, {size: function(){ return 42; }});"));
+    Assert.assertTrue(code.contains("new _superClassAdapter();"));
+    engine.eval(code);
+    Assert.assertEquals(42, engine.eval("new Sub()._superClassObject.size()"));
+  }
+
+  @Test
+  public void testPerInstanceOverrides() throws ScriptException {
+    //Overrides using super need the instance's super reference, so each instance extends the adapter itself
+    String code = genExtendsArrayList("size(){ return super.size() + 1; }");
+    Assert.assertTrue(code.contains("Java.extend(_ArrayList);"));
+    Assert.assertTrue(code.contains("new _superClassAdapter(){size: function(){ return _superReference.size() + 1; }};"));
+    engine.eval(code);
+    engine.eval("var sub = new Sub(); sub._superClassObject.add(1)");
+    Assert.assertEquals(2, engine.eval("sub._superClassObject.size()"));
+  }
+
+  @Test
+  public void testSuperReferences() throws ScriptException {
+    //super outside overrides goes through the reference the constructor binds once per instance
+    String code = genExtendsArrayList("anotherAdd(x){ return super.add(x); }");
+    Assert.assertTrue(code.contains("var _superReference = Java.super(_superClassObject);"));
+    Assert.assertTrue(code.contains("Sub.prototype.anotherAdd = function(x){ return this._superReference.add(x); }"));
+    engine.eval(code);
+    engine.eval("var first = new Sub(); var second = new Sub(); first.anotherAdd('a'); first.anotherAdd('b')");
+    Assert.assertEquals(2, engine.eval("first._superClassObject.size()"));
+    Assert.assertEquals(0, engine.eval("second._superClassObject.size()"));
+    Assert.assertEquals(false, engine.eval("first._superReference === second._superReference"));
+  }
+
+  @Test
+  public void testInterfaceObjects() throws ScriptException {
+    String code = "import java.util.Comparator\n" +
+            "class Descending implements Comparator { compare(a, b){ return b - a; } }";
+    engine.eval(new Parser(new Tokenizer(code)).parse().genCode());
+    engine.eval("var list = new java.util.ArrayList(); list.add(1); list.add(3); list.add(2);" +
+            "java.util.Collections.sort(list, new Descending()._interfaceObject)");
+    Assert.assertEquals("[3, 2, 1]", engine.eval("list.toString()"));
+  }
+
+  @Test
+  public void testExtendsAndImplements() throws ScriptException {
+    //The one java object of the instance extends the supertype and implements the interfaces
+    String code = "import java.util.ArrayList\nimport java.util.Comparator\n" +
+            "class Sorter extends ArrayList implements Comparator {" +
+            " constructor(){ this.calls = 0; }" +
+            " compare(a, b){ this.calls++; return b - a; }" +
+            " size(){ return super.size() + 1; } }";
+    SupertypeLookup lookup = (supertype, method) -> method.equals("size");
+    engine.eval(new Parser(new Tokenizer(code), lookup).parse().genCode());
+    engine.eval("var sorter = new Sorter(); var object = sorter._interfaceObject");
+    Assert.assertEquals(true, engine.eval("object instanceof Java.type('java.util.ArrayList')"));
+    Assert.assertEquals(true, engine.eval("object instanceof Java.type('java.util.Comparator')"));
+    Assert.assertEquals(true, engine.eval("object === sorter._superClassObject && object._getScriptObject() === sorter"));
+    Assert.assertEquals(1, engine.eval("object.size()"));
+    engine.eval("var list = new java.util.ArrayList(); list.add(1); list.add(3); list.add(2);" +
+            "java.util.Collections.sort(list, object)");
+    Assert.assertEquals("[3, 2, 1]", engine.eval("list.toString()"));
+    Assert.assertEquals(true, engine.eval("sorter.calls > 0"));
+  }
+
   public Node makeSampleTree() {
     //Tree based on Tora Conversion Example
 
@@ -15,11 +15,14 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.sun.tools.javac.util.Assert.error;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ParserTest {
     private static ScriptEngine engine;
@@ -122,6 +125,35 @@ public class ParserTest {
                 new ClassNode("Sub", "Parent"));
     }
 
+    @Test
+    public void parseOverridesFromSupertypeLookup() {
+        String code = "import java.util.ArrayList\n" +
+                "class Sub extends ArrayList { size(){ return 1; } foo(){ return 2; } }";
+        SupertypeLookup lookup = (supertype, method) ->
+                supertype.equals("java.util.ArrayList") && method.equals("size");
+        ClassNode tree = ((ProgramNode) new Parser(new Tokenizer(code), lookup).parse()).getFirstChild(ClassNode.class);
+        List<ClassFunctionNode> functions = tree.getChildren(ClassFunctionNode.class);
+        assertTrue(functions.get(0).isOverride());
+        assertFalse(functions.get(1).isOverride());
+        //Without a lookup no function overrides
+        assertFalse(parseClass(code).getFirstChild(ClassFunctionNode.class).isOverride());
+    }
+
+    @Test
+    public void parseImplements() {
+        ProgramNode tree = this.parse(
+                "import java.util.Comparator\n" +
+                "import java.lang.Runnable\n" +
+                "class Sub implements Comparator, Runnable { run(){} }");
+        assertEquals(0, tree.errorCount());
+        assertEquals(Arrays.asList("Comparator", "Runnable"), tree.getFirstChild(ClassNode.class).getInterfaces());
+    }
+
+    @Test
+    public void implementsRequiresImport() {
+        assertHasError(this.parse("class Sub implements Runnable { run(){} }"));
+    }
+
     @Test
     public void parseArgsError() {
         assertHasError(this.parse("class DemoClass { bar(a,){} }"));
@@ -143,6 +175,24 @@ public class ParserTest {
         assertHasError(parse("class DemoClass { bar() }")); //function with no function body
     }
 
+    @Test
+    public void parseArrayTypes() {
+        ProgramNode tree = this.parse("function scale(a : double[], b : String[][]) : double[] { return a; }");
+        assertEquals(0, tree.errorCount());
+        FunctionNode function = tree.getFirstChild(FunctionNode.class);
+        assertEquals("double[]", function.getReturnType());
+        assertEquals(Arrays.asList("double[]", "String[][]"), function.getFirstChild(ParameterNode.class).getTypes());
+    }
+
+    @Test
+    public void parseQualifiedTypes() {
+        ProgramNode tree = this.parse("function name(a : tora.GosuDemoClass, b : java.util.List) : java.lang.String { return a; }");
+        assertEquals(0, tree.errorCount());
+        FunctionNode function = tree.getFirstChild(FunctionNode.class);
+        assertEquals("java.lang.String", function.getReturnType());
+        assertEquals(Arrays.asList("tora.GosuDemoClass", "java.util.List"), function.getFirstChild(ParameterNode.class).getTypes());
+    }
+
     /*Runs code through tokenizer, parser, and codegen; uses Nashorn to verify results*/
     @Test
     public void endTest() throws ScriptException, FileNotFoundException {
@@ -0,0 +1,107 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ExpandoWrapperTest
+{
+  private final ScriptEngine _engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+
+  @Test
+  public void readsFieldsAndCallsFunctions() throws Exception
+  {
+    ExpandoWrapper expando = expando( "({x: 10, y: function(a) { return this.x + a; }, inner: {z: 'z'}})" );
+    assertEquals( 10, expando.getFieldValue( "x" ) );
+    assertEquals( 15, ((Number)expando.invoke( "y", 5 )).intValue() );
+    assertEquals( "z", ((ExpandoWrapper)expando.getFieldValue( "inner" )).getFieldValue( "z" ) );
+    assertNull( expando.getFieldValue( "missing" ) );
+  }
+
+  @Test
+  public void writesGoToTheObject() throws Exception
+  {
+    ExpandoWrapper expando = expando( "({})" );
+    expando.setFieldValue( "a", 1 );
+    assertEquals( 1, expando.getMirror().getMember( "a" ) );
+    assertSame( expando.getMirror(), JavaObjectView.wrap( expando ) );
+  }
+
+  @Test
+  public void mapIsAViewOfOwnMembers() throws Exception
+  {
+    ExpandoWrapper expando = expando( "({a: 1, b: 2})" );
+    Map<?, ?> map = expando.getMap();
+    assertEquals( 2, map.size() );
+    assertEquals( Arrays.asList( "a", "b" ), Arrays.asList( map.keySet().toArray() ) );
+    expando.getMirror().setMember( "a", 3 );
+    assertEquals( 3, map.get( "a" ) );
+  }
+
+  @Test
+  public void mapKeysAreReadAgain() throws Exception
+  {
+    ExpandoWrapper expando = expando( "Object.create({inherited: 0}, {a: {value: 1, enumerable: true}})" );
+    Map<?, ?> map = expando.getMap();
+    assertEquals( 1, map.size() );
+    assertFalse( map.containsKey( "inherited" ) );
+    assertNull( map.get( "inherited" ) );
+    expando.getMirror().setMember( "b", 2 );
+    assertEquals( 2, map.size() );
+    assertTrue( map.containsKey( "b" ) );
+    assertEquals( Arrays.asList( "a", "b" ), Arrays.asList( map.keySet().toArray() ) );
+  }
+
+  @Test
+  public void classInstancesAreUnwrapped() throws Exception
+  {
+    ExpandoWrapper expando = expando( "({bar: function() { return 42; }})" );
+    assertSame( expando.getMirror(), JavascriptClassTypeInfo.toScriptObject( expando ) );
+    assertSame( expando.getMirror(), ExpandoWrapper.unwrap( expando ) );
+  }
+
+  @Test
+  public void onlyPlainObjectsAreWrapped() throws Exception
+  {
+    Object array = _engine.eval( "[1, 2]" );
+    Object function = _engine.eval( "(function() {})" );
+    assertSame( array, ExpandoWrapper.wrap( array ) );
+    assertSame( function, ExpandoWrapper.wrap( function ) );
+    assertEquals( "s", ExpandoWrapper.wrap( "s" ) );
+  }
+  @Test
+  public void javaObjectsAreReadBackUnwrapped() throws Exception
+  {
+    ExpandoWrapper expando = expando( "({})" );
+    List<Object> list = new ArrayList<>();
+    expando.setFieldValue( "list", list );
+    assertSame( list, expando.getFieldValue( "list" ) );
+    assertSame( list, expando.getMap().get( "list" ) );
+    assertSame( list, expando.getMap().values().iterator().next() );
+  }
+
+  @Test
+  public void mapOnlyContainsOwnEnumerableMembers() throws Exception
+  {
+    ExpandoWrapper expando = expando( "Object.defineProperty(Object.create(null), 'hidden', {value: 1})" );
+    Map<?, ?> map = expando.getMap();
+    assertFalse( map.containsKey( "hidden" ) );
+    assertFalse( map.containsKey( "toString" ) );
+    expando.getMirror().setMember( "shown", 2 );
+    assertTrue( map.containsKey( "shown" ) );
+    assertEquals( 2, map.get( "shown" ) );
+  }
+
+  private ExpandoWrapper expando( String code ) throws Exception
+  {
+    return (ExpandoWrapper)ExpandoWrapper.wrap( (ScriptObjectMirror)_engine.eval( code ) );
+  }
+}
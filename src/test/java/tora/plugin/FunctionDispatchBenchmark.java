@@ -0,0 +1,57 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.JSObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tora.engine.EngineFactory;
+
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import java.util.concurrent.TimeUnit;
+
+/*Calls a one argument top level function by name through Invocable, as program types did, and through the
+ *function object looked up once, as they do now*/
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class FunctionDispatchBenchmark
+{
+  private ScriptEngine _engine;
+  private JSObject _function;
+  private Object _global;
+  private Object[] _args;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    _engine = EngineFactory.newEngine();
+    _engine.eval( "function hello(name) { return 'Hello ' + name; }" );
+    _function = (JSObject)_engine.get( "hello" );
+    _global = _engine.getBindings( ScriptContext.ENGINE_SCOPE );
+    _args = new Object[]{"Gosu"};
+  }
+
+  @Benchmark
+  public Object invokeFunction() throws Exception
+  {
+    return ((Invocable)_engine).invokeFunction( "hello", _args );
+  }
+
+  @Benchmark
+  public Object functionHandle()
+  {
+    return _function.call( _global, _args );
+  }
+}
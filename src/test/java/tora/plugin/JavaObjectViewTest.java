@@ -0,0 +1,159 @@
+package tora.plugin;
+
+import org.junit.BeforeClass;
+import tora.parser.tree.ParameterNode;
+import org.junit.Test;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JavaObjectViewTest
+{
+  private static ScriptEngine _engine;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception
+  {
+    _engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+    _engine.eval( "function sum(list) { var s = 0; for (var i = 0; i < list.length; i++) s += list[i]; return s; }\n" +
+                  "function keys(map) { var k = []; for (var key in map) k.push(key + '=' + map[key]); return k.join(); }\n" +
+                  "function callMethods(list) { list.add(4); list.remove(0); return list.size() + ':' + list.get(0); }\n" +
+                  "function removeBoth(list) { list.remove('a'); list.remove(0); return list.size() + ':' + list.get(0); }\n" +
+                  "function concreteMethods(list) { list.ensureCapacity(10); list.trimToSize(); return list.size(); }\n" +
+                  "function callback(list) { var s = 0; list.forEach(function(e) { s += e; }); return s; }\n" +
+                  "function arrayMethods(list) { return Array.prototype.map.call(list, function(e) { return e * 2; }).join(); }\n" +
+                  "function assign(list, map) { list[0] = 'a'; list[list.length] = 'b'; map.c = 3; return map; }\n" +
+                  "function identity(o) { return o; }\n" +
+                  "function scale(a, k) { for (var i = 0; i < a.length; i++) a[i] *= k; return a; }\n" +
+                  "function readDoubles(bytes) { var d = bytes.asFloat64Array(); return d.length + ':' + d[1] + ':' + bytes.length; }\n" +
+                  "function indices(a) { var k = []; for (var i in a) k.push(i); return k.join(); }\n" +
+                  "function elements(a) { var e = []; for each (var v in a) e.push(v); return e.join(); }\n" +
+                  "function missing(a) { return (typeof a.noSuchMember) + ':' + (typeof a[a.length]); }\n" +
+                  "function toJava(list) { return Java.type('java.util.Collections').max(list); }" );
+  }
+
+  @Test
+  public void listIndexAndLength() throws Exception
+  {
+    assertEquals( 6, ((Number)call( "sum", Arrays.asList( 1, 2, 3 ) )).intValue() );
+  }
+
+  @Test
+  public void mapEntriesAsProperties() throws Exception
+  {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put( "a", 1 );
+    map.put( "b", "two" );
+    assertEquals( "a=1,b=two", call( "keys", map ) );
+  }
+
+  @Test
+  public void javaMethodsStayCallable() throws Exception
+  {
+    assertEquals( "3:2", call( "callMethods", new ArrayList<>( Arrays.asList( 1, 2, 3 ) ) ) );
+    assertEquals( 6, ((Number)call( "callback", Arrays.asList( 1, 2, 3 ) )).intValue() );
+    assertEquals( "2,4,6", call( "arrayMethods", Arrays.asList( 1, 2, 3 ) ) );
+  }
+
+  @Test
+  public void overloadsArePickedByArgumentType() throws Exception
+  {
+    List<Object> list = new ArrayList<>( Arrays.asList( "b", "a", "c" ) );
+    assertEquals( "1:c", call( "removeBoth", list ) );
+    assertEquals( Arrays.asList( "c" ), list );
+  }
+
+  @Test
+  public void methodsOfTheConcreteClass() throws Exception
+  {
+    assertEquals( 2, ((Number)call( "concreteMethods", new ArrayList<>( Arrays.asList( 1, 2 ) ) )).intValue() );
+  }
+
+  @Test
+  public void writesGoToTheWrappedObjects() throws Exception
+  {
+    List<Object> list = new ArrayList<>( Arrays.asList( 1 ) );
+    Map<String, Object> map = new LinkedHashMap<>();
+    assertSame( map, call( "assign", list, map ) );
+    assertEquals( Arrays.asList( "a", "b" ), list );
+    assertEquals( 3, ((Number)map.get( "c" )).intValue() );
+  }
+
+  @Test
+  public void viewsAreUnwrappedOnReturn() throws Exception
+  {
+    List<Object> list = new ArrayList<>();
+    assertSame( list, call( "identity", list ) );
+  }
+
+  @Test
+  public void buffersShareMemory() throws Exception
+  {
+    double[] doubles = {1, 2, 3};
+    DoubleBuffer doubleBuffer = DoubleBuffer.wrap( doubles );
+    assertSame( doubleBuffer, call( "scale", doubleBuffer, 2 ) );
+    assertArrayEquals( new double[]{2, 4, 6}, doubles, 0 );
+
+    int[] ints = {1, 2, 3};
+    call( "scale", IntBuffer.wrap( ints ), 3 );
+    assertArrayEquals( new int[]{3, 6, 9}, ints );
+
+    assertEquals( 6, ((Number)call( "sum", DoubleBuffer.wrap( new double[]{1, 2, 3} ) )).intValue() );
+  }
+
+  @Test
+  public void byteBuffersAsTypedArrays() throws Exception
+  {
+    ByteBuffer bytes = ByteBuffer.allocateDirect( 16 );
+    bytes.putDouble( 0, 1.5 ).putDouble( 8, 2.5 );
+    assertEquals( "2:2.5:16", call( "readDoubles", bytes ) );
+    call( "scale", bytes, 0 );
+    assertEquals( 0.0, bytes.getDouble( 0 ), 0 );
+  }
+
+  @Test
+  public void listsIterateLikeArrays() throws Exception
+  {
+    assertEquals( "0,1,2", call( "indices", Arrays.asList( "a", "b", "c" ) ) );
+    assertEquals( "a,b,c", call( "elements", Arrays.asList( "a", "b", "c" ) ) );
+    assertEquals( "0,1", call( "indices", IntBuffer.wrap( new int[]{4, 5} ) ) );
+    assertEquals( "4,5", call( "elements", IntBuffer.wrap( new int[]{4, 5} ) ) );
+  }
+
+  @Test
+  public void missingMembersAreUndefined() throws Exception
+  {
+    assertEquals( "undefined:undefined", call( "missing", Arrays.asList( 1, 2 ) ) );
+    assertEquals( "undefined:undefined", call( "missing", DoubleBuffer.wrap( new double[]{1} ) ) );
+  }
+
+  @Test
+  public void dynamicParametersAreHandedOnToJava() throws Exception
+  {
+    ParameterNode params = new ParameterNode();
+    params.addParam( "list", null );
+    Object[] args = {Arrays.asList( 3, 7, 5 )};
+    InvocationPlan.coerceArguments( InvocationPlan.bindParameters( params ), args );
+    assertEquals( 7, ((Number)((Invocable)_engine).invokeFunction( "toJava", args )).intValue() );
+  }
+
+  private static Object call( String function, Object... args ) throws Exception
+  {
+    for( int i = 0; i < args.length; i++ )
+    {
+      args[i] = JavaObjectView.wrap( args[i] );
+    }
+    return JavaObjectView.unwrap( ((Invocable)_engine).invokeFunction( function, args ) );
+  }
+}
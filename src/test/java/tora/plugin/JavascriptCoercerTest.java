@@ -0,0 +1,99 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JavascriptCoercerTest
+{
+
+  @Test
+  public void coercesNumbers()
+  {
+    assertEquals( 42, JavascriptCoercer.coerceTypesJStoJava( 42.0, "java.lang.Integer" ) );
+    assertEquals( 42L, JavascriptCoercer.coerceTypesJStoJava( 42, "java.lang.Long" ) );
+    assertEquals( (short)7, JavascriptCoercer.coerceTypesJStoJava( 7.5, "java.lang.Short" ) );
+    assertEquals( 1.5f, JavascriptCoercer.coerceTypesJStoJava( 1.5, "java.lang.Float" ) );
+    assertEquals( 3.0, JavascriptCoercer.coerceTypesJavatoJS( 3, "java.lang.Double" ) );
+    assertEquals( new BigDecimal( "0.1" ), JavascriptCoercer.coerceTypesJStoJava( 0.1, "java.math.BigDecimal" ) );
+    assertEquals( BigInteger.TEN, JavascriptCoercer.coerceTypesJStoJava( 10, "java.math.BigInteger" ) );
+    assertEquals( 5, JavascriptCoercer.coerceTypesJStoJava( BigInteger.valueOf( 5 ), "java.lang.Integer" ) );
+  }
+
+  @Test
+  public void coercesStringsAndBooleans()
+  {
+    assertEquals( "42.0", JavascriptCoercer.coerceTypesJStoJava( 42.0, "java.lang.String" ) );
+    assertEquals( "true", JavascriptCoercer.coerceTypesJStoJava( true, "java.lang.String" ) );
+    assertEquals( "ab", JavascriptCoercer.coerceTypesJStoJava( new StringBuilder( "ab" ), "java.lang.String" ) );
+    //strings are not guessed at as booleans
+    assertEquals( "yes", JavascriptCoercer.coerceTypesJStoJava( "yes", "java.lang.Boolean" ) );
+  }
+
+  @Test
+  public void leavesOtherValuesAlone()
+  {
+    Object o = new Object();
+    assertSame( o, JavascriptCoercer.coerceTypesJStoJava( o, "java.lang.Integer" ) );
+    Integer i = 1000;
+    assertSame( i, JavascriptCoercer.coerceTypesJStoJava( i, "java.lang.Integer" ) );
+    assertNull( JavascriptCoercer.coerceTypesJStoJava( null, "java.lang.Integer" ) );
+  }
+
+  @Test
+  public void registeredCoercionsApply()
+  {
+    //rules can't be removed from the shared tables, so this one is for a class no other code uses
+    Code code = new Code( "ok" );
+    assertSame( code, JavascriptCoercer.coerceTypesJStoJava( code, "java.lang.Character" ) );
+    JavascriptCoercer.addJStoJavaCoercer( Code.class, Character.class, o -> ((Code)o)._text.charAt( 0 ) );
+    assertEquals( 'o', JavascriptCoercer.coerceTypesJStoJava( code, "java.lang.Character" ) );
+  }
+
+  @Test
+  public void convertsScriptArrays() throws Exception
+  {
+    ScriptEngine engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+    ScriptObjectMirror array = (ScriptObjectMirror)engine.eval( "[1, 2.5, 3]" );
+
+    List<?> list = (List<?>)JavascriptCoercer.coerceTypesJStoJava( array, "java.util.List" );
+    assertEquals( 3, list.size() );
+    assertEquals( 2.5, list.get( 1 ) );
+    assertEquals( 3, list.toArray().length );
+    Number[] numbers = list.toArray( new Number[0] );
+    assertEquals( 3, numbers.length );
+    assertEquals( 2.5, numbers[1].doubleValue(), 0 );
+    List<Double> iterated = new ArrayList<>();
+    for( Object element : list )
+    {
+      iterated.add( ((Number)element).doubleValue() );
+    }
+    assertEquals( Arrays.asList( 1.0, 2.5, 3.0 ), iterated );
+
+    double[] doubles = (double[])JavascriptCoercer.coerceTypesJStoJava( array, "double[]" );
+    assertArrayEquals( new double[]{1, 2.5, 3}, doubles, 0 );
+
+    Object notAnArray = engine.eval( "({a: 1})" );
+    assertSame( notAnArray, JavascriptCoercer.coerceTypesJStoJava( notAnArray, "double[]" ) );
+  }
+
+  private static class Code
+  {
+    final String _text;
+
+    Code( String text )
+    {
+      _text = text;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package tora.plugin;
+
+import gw.lang.reflect.TypeSystem;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import tora.Utils;
+
+import static org.junit.Assert.*;
+
+public class JavascriptRuntimeTest
+{
+  @BeforeClass
+  public static void beforeClass()
+  {
+    Utils.maybeInit();
+  }
+
+  @Test
+  public void typeInfoAndEngineAreBuiltOnFirstUse() throws Exception
+  {
+    JavascriptProgramType type = (JavascriptProgramType)TypeSystem.getByFullName( "LazyProgram" );
+    assertFalse( type.isTypeInfoLoaded() );
+
+    JavascriptProgramTypeInfo typeInfo = (JavascriptProgramTypeInfo)type.getTypeInfo();
+    assertTrue( type.isTypeInfoLoaded() );
+    assertFalse( typeInfo.getRuntime().isStarted() );
+
+    assertEquals( 42, typeInfo.getMethod( "answer" ).getCallHandler().handleCall( null ) );
+    assertTrue( typeInfo.getRuntime().isStarted() );
+  }
+
+  @Test
+  public void typesOfAModuleCanShareAnEngine() throws Exception
+  {
+    System.setProperty( "tora.engine.program.sharedPerModule", "true" );
+    try
+    {
+      JavascriptRuntime a = runtime( "SharedProgramA" );
+      JavascriptRuntime b = runtime( "SharedProgramB" );
+      assertEquals( "A", a.invokeFunction( "getName" ) );
+      assertEquals( "B", b.invokeFunction( "getName" ) );
+      assertSame( a.getEngine(), b.getEngine() );
+      assertNotSame( a.getGlobal(), b.getGlobal() );
+    }
+    finally
+    {
+      System.clearProperty( "tora.engine.program.sharedPerModule" );
+    }
+  }
+
+  @Test
+  public void functionsAreCalledWithTheGlobalAsThis() throws Exception
+  {
+    JavascriptProgramTypeInfo typeInfo = (JavascriptProgramTypeInfo)TypeSystem.getByFullName( "FunctionProgram" )
+      .getTypeInfo();
+    assertEquals( true, typeInfo.getMethod( "strictThis" ).getCallHandler().handleCall( null ) );
+  }
+
+  @Test
+  public void rebindingHandlesSeeReassignedFunctions()
+  {
+    JavascriptRuntime runtime = runtime( "FunctionProgram" );
+    FunctionHandle cached = new FunctionHandle( runtime, "greet", false );
+    FunctionHandle rebound = new FunctionHandle( runtime, "greet", true );
+    assertSame( cached.get(), rebound.get() );
+    assertEquals( "first", cached.get().call( runtime.getGlobal() ) );
+    //greet replaced itself
+    assertEquals( "first", cached.get().call( runtime.getGlobal() ) );
+    assertEquals( "again", rebound.get().call( runtime.getGlobal() ) );
+  }
+
+  private static JavascriptRuntime runtime( String typeName )
+  {
+    return ((JavascriptProgramTypeInfo)TypeSystem.getByFullName( typeName ).getTypeInfo()).getRuntime();
+  }
+}
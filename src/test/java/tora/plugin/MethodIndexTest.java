@@ -0,0 +1,50 @@
+package tora.plugin;
+
+import gw.lang.reflect.IType;
+import gw.lang.reflect.ITypeInfo;
+import gw.lang.reflect.TypeSystem;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import tora.Utils;
+
+import static org.junit.Assert.*;
+
+public class MethodIndexTest
+{
+  @BeforeClass
+  public static void beforeClass()
+  {
+    Utils.maybeInit();
+  }
+
+  @Test
+  public void findsMethodsByNameAndArity()
+  {
+    ITypeInfo typeInfo = TypeSystem.getByFullName( "DemoClass" ).getTypeInfo();
+    IType dynamic = TypeSystem.getByFullName( "dynamic.Dynamic" );
+    assertEquals( "sum", typeInfo.getMethod( "sum", dynamic, dynamic ).getDisplayName() );
+    assertNotNull( typeInfo.getCallableMethod( "sum", dynamic, dynamic ) );
+    assertNotNull( typeInfo.getMethod( "bar" ) );
+    assertNull( typeInfo.getMethod( "sum", dynamic ) );
+    assertNull( typeInfo.getMethod( "missing" ) );
+  }
+
+  @Test
+  public void findsProgramFunctions()
+  {
+    ITypeInfo typeInfo = TypeSystem.getByFullName( "TypingProgram" ).getTypeInfo();
+    IType doubleType = TypeSystem.getByFullName( "java.lang.Double" );
+    assertNotNull( typeInfo.getMethod( "doubleTest", doubleType, doubleType ) );
+    assertNull( typeInfo.getMethod( "doubleTest", doubleType ) );
+  }
+
+  @Test
+  public void singleConstructorMatchesAnyArguments()
+  {
+    ITypeInfo typeInfo = TypeSystem.getByFullName( "DemoClass" ).getTypeInfo();
+    IType integer = TypeSystem.getByFullName( "java.lang.Integer" );
+    assertNotNull( typeInfo.getConstructor() );
+    assertSame( typeInfo.getConstructor(), typeInfo.getConstructor( integer ) );
+    assertSame( typeInfo.getConstructor(), typeInfo.getCallableConstructor( integer ) );
+  }
+}
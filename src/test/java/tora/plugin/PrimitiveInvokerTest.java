@@ -0,0 +1,97 @@
+package tora.plugin;
+
+import jdk.nashorn.api.scripting.JSObject;
+import org.junit.Test;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveInvokerTest
+{
+  private final ScriptEngine _engine = new ScriptEngineManager().getEngineByName( "nashorn" );
+
+  @Test
+  public void convertsResultsToTheDeclaredPrimitive() throws Exception
+  {
+    JSObject add = function( "(function(a, b) { return a + b; })" );
+    assertEquals( 5, PrimitiveInvoker.forTypes( Arrays.asList( "int", "int" ), "int" ).invoke( add, null, args( 2, 3 ) ) );
+    assertEquals( 2.5, PrimitiveInvoker.forTypes( Arrays.asList( "double", "double" ), "double" )
+      .invoke( add, null, args( 1, 1.5 ) ) );
+    assertEquals( 3L, PrimitiveInvoker.forTypes( Arrays.asList( "long", "long" ), "long" )
+      .invoke( add, null, args( 1L, 2L ) ) );
+    assertEquals( true, PrimitiveInvoker.forTypes( Arrays.asList( "int", "int" ), "boolean" )
+      .invoke( add, null, args( 1, 0 ) ) );
+  }
+
+  @Test
+  public void longResultsKeepTheirPrecision() throws Exception
+  {
+    JSObject parse = function( "(function() { return java.lang.Long.parseLong('9007199254740993'); })" );
+    assertEquals( 9007199254740993L, PrimitiveInvoker.forTypes( Collections.emptyList(), "long" ).invoke( parse, null, args() ) );
+  }
+
+  @Test
+  public void narrowPrimitivesArePassedAsJavascriptValues() throws Exception
+  {
+    JSObject describe = function( "(function(a, c) { return typeof a + typeof c; })" );
+    PrimitiveInvoker invoker = PrimitiveInvoker.forTypes( Arrays.asList( "float", "char" ), "void" );
+    assertNull( invoker.invoke( describe, null, args( 1.5f, 'c' ) ) );
+    JSObject charCode = function( "(function(c) { return c.charCodeAt(0); })" );
+    assertEquals( 'a', PrimitiveInvoker.forTypes( Collections.singletonList( "char" ), "char" )
+      .invoke( charCode, null, args( 'a' ) ) );
+  }
+
+  @Test
+  public void charactersComeBackFromStrings() throws Exception
+  {
+    JSObject upper = function( "(function(c) { return c.toUpperCase(); })" );
+    assertEquals( 'A', PrimitiveInvoker.forTypes( Collections.singletonList( "char" ), "char" )
+      .invoke( upper, null, args( 'a' ) ) );
+  }
+
+  @Test
+  public void nonNumbersAreNotConverted() throws Exception
+  {
+    PrimitiveInvoker toInt = PrimitiveInvoker.forTypes( Collections.emptyList(), "int" );
+    assertFails( toInt, function( "(function() { return 'five'; })" ) );
+    assertFails( toInt, function( "(function() { return {}; })" ) );
+    assertFails( toInt, function( "(function() { })" ) );
+    assertFails( PrimitiveInvoker.forTypes( Collections.emptyList(), "char" ), function( "(function() { return 'ab'; })" ) );
+  }
+
+  private static void assertFails( PrimitiveInvoker invoker, JSObject function )
+  {
+    try
+    {
+      invoker.invoke( function, null, args() );
+      fail( "expected a ClassCastException" );
+    }
+    catch( ClassCastException e )
+    {
+      //expected
+    }
+  }
+
+  @Test
+  public void onlyFullyPrimitiveSignaturesAreSpecialized()
+  {
+    assertNull( PrimitiveInvoker.forTypes( Arrays.asList( "int", "Double" ), "int" ) );
+    assertNull( PrimitiveInvoker.forTypes( Collections.singletonList( "int" ), "dynamic.Dynamic" ) );
+    assertNull( PrimitiveInvoker.forTypes( Collections.singletonList( "void" ), "int" ) );
+    assertNotNull( PrimitiveInvoker.forTypes( Collections.emptyList(), "void" ) );
+  }
+
+  private JSObject function( String code ) throws Exception
+  {
+    return (JSObject)_engine.eval( code );
+  }
+
+  private static Object[] args( Object... args )
+  {
+    return args;
+  }
+}
@@ -0,0 +1,58 @@
+package tora.plugin;
+
+import gw.lang.reflect.IMethodInfo;
+import gw.lang.reflect.TypeSystem;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import tora.Utils;
+import tora.parser.Parser;
+import tora.parser.Tokenizer;
+import tora.parser.tree.ProgramNode;
+
+import static org.junit.Assert.*;
+
+public class SupertypeCacheTest
+{
+  @BeforeClass
+  public static void beforeClass()
+  {
+    Utils.maybeInit();
+  }
+
+  @Test
+  public void supertypesAreSharedByName()
+  {
+    SupertypeCache.Supertype arrayList = SupertypeCache.get( "java.util.ArrayList" );
+    assertSame( arrayList, SupertypeCache.get( "java.util.ArrayList" ) );
+    assertTrue( arrayList.hasMethod( "add" ) );
+    assertEquals( 2, arrayList.getMethods( "remove" ).size() );
+    assertTrue( arrayList.getMethods( "missing" ).isEmpty() );
+    assertNull( SupertypeCache.get( "no.such.Type" ) );
+    assertTrue( SupertypeCache.hasMethod( "java.util.ArrayList", "size" ) );
+    assertFalse( SupertypeCache.hasMethod( "no.such.Type", "size" ) );
+  }
+
+  @Test
+  public void inheritedMethodsAreBuiltOnFirstLookup()
+  {
+    //A fresh type info, so no other test has looked up its methods yet
+    JavascriptClassType type = (JavascriptClassType)TypeSystem.getByFullName( "ExtendsClass" );
+    ProgramNode programNode = (ProgramNode)new Parser( new Tokenizer( type.getSource() ), SupertypeCache::hasMethod ).parse();
+    JavascriptClassTypeInfo typeInfo = new JavascriptClassTypeInfo( type, programNode );
+    assertFalse( typeInfo.isInheritedMethodBuilt( "isEmpty" ) );
+
+    //Own methods do not build inherited ones
+    assertNotNull( typeInfo.getMethod( "foo" ) );
+    assertFalse( typeInfo.isInheritedMethodBuilt( "foo" ) );
+
+    IMethodInfo isEmpty = typeInfo.getMethod( "isEmpty" );
+    assertNotNull( isEmpty );
+    assertSame( type, isEmpty.getOwnersType() );
+    assertTrue( typeInfo.isInheritedMethodBuilt( "isEmpty" ) );
+    assertFalse( typeInfo.isInheritedMethodBuilt( "add" ) );
+
+    //The full list holds own and inherited methods
+    assertTrue( typeInfo.getMethods().stream().anyMatch( m -> m.getDisplayName().equals( "foo" ) ) );
+    assertEquals( 2, typeInfo.getMethods().stream().filter( m -> m.getDisplayName().equals( "remove" ) ).count() );
+  }
+}
@@ -0,0 +1,90 @@
+package tora.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tora.engine.EngineFactory;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*Sums a series of doubles in javascript, passed as a list of boxed Doubles both linked by nashorn's bean linker and
+ *through a ListView, as a double[] linked by the bean linker, and through typed array views over a DoubleBuffer
+ *wrapping the same array and over a direct ByteBuffer*/
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+public class TypedArrayBenchmark
+{
+  @Param( {"100000"} )
+  public int size;
+
+  private Invocable _engine;
+  private List<Double> _boxed;
+  private double[] _array;
+  private ByteBuffer _buffer;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    ScriptEngine engine = EngineFactory.newEngine();
+    engine.eval( "function sum(a) { var s = 0; for (var i = 0; i < a.length; i++) s += a[i]; return s; }\n" +
+                 "function sumBytes(b) { return sum(b.asFloat64Array()); }" );
+    _engine = (Invocable)engine;
+    _boxed = new ArrayList<>( size );
+    _array = new double[size];
+    _buffer = ByteBuffer.allocateDirect( size * Double.BYTES );
+    for( int i = 0; i < size; i++ )
+    {
+      _boxed.add( (double)i );
+      _array[i] = i;
+      _buffer.putDouble( i * Double.BYTES, i );
+    }
+  }
+
+  @Benchmark
+  public Object beanLinkedList() throws Exception
+  {
+    return _engine.invokeFunction( "sum", _boxed );
+  }
+
+  @Benchmark
+  public Object boxedList() throws Exception
+  {
+    return _engine.invokeFunction( "sum", JavaObjectView.wrap( _boxed ) );
+  }
+
+  @Benchmark
+  public Object beanLinkedArray() throws Exception
+  {
+    return _engine.invokeFunction( "sum", (Object)_array );
+  }
+
+  @Benchmark
+  public Object doubleBufferView() throws Exception
+  {
+    return _engine.invokeFunction( "sum", JavaObjectView.wrap( DoubleBuffer.wrap( _array ) ) );
+  }
+
+  @Benchmark
+  public Object byteBufferView() throws Exception
+  {
+    return _engine.invokeFunction( "sumBytes", JavaObjectView.wrap( _buffer ) );
+  }
+}
@@ -24,6 +24,14 @@ class DemoClass {
     return a + b;
   }
 
+  self() {
+    return this;
+  }
+
+  same(other) {
+    return other === this;
+  }
+
   get cons() {
     return this.baz;
   }
@@ -0,0 +1,8 @@
+import java.util.Comparator
+
+class Descending implements Comparator
+{
+    compare(a, b) {
+        return b - a;
+    }
+}
@@ -0,0 +1,9 @@
+function greet() {
+  greet = function() { return "again"; };
+  return "first";
+}
+
+function strictThis() {
+  "use strict";
+  return this != null && this.greet !== undefined;
+}
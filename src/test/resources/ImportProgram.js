@@ -1,5 +1,6 @@
 import tora.ImportingJavaClassTest.JavaClass;
 import tora.GosuDemoClass;
+import java.util.ArrayList;
 
 function javaFoo() {
   return JavaClass.staticFoo();
@@ -8,3 +9,66 @@ function javaFoo() {
 function gosuFoo() {
   return GosuDemoClass.staticFoo();
 }
+
+function gosuEnhancement(gosuObject : tora.GosuDemoClass, x) {
+  return gosuObject.tripleInput(x) + gosuObject.Answer;
+}
+
+function gosuLoop(gosuObject : tora.GosuDemoClass, n) {
+  var sum = 0;
+  for (var i = 0; i < n; i++) {
+    sum += gosuObject.doubleInput(i);
+  }
+  return sum;
+}
+
+function gosuOverloadLoop(gosuObject : tora.GosuDemoClass, n) {
+  var counts = {string: 0, int: 0};
+  for (var i = 0; i < n; i++) {
+    counts[gosuObject.describe(i % 2 == 0 ? "a" : i)]++;
+  }
+  return counts.string + ":" + counts.int;
+}
+
+function importedGosuClass() {
+  var gosuObject = new GosuDemoClass();
+  return GosuDemoClass.staticFoo() + gosuObject.tripleInput(2) + gosuObject.Answer;
+}
+
+function importedGosuInstance() {
+  return new GosuDemoClass() instanceof GosuDemoClass;
+}
+
+function gosuIdentity(gosuObject : tora.GosuDemoClass) {
+  return gosuObject;
+}
+
+function gosuOverloads(gosuObject : tora.GosuDemoClass) {
+  return gosuObject.describe("a") + "," + gosuObject.describe(1);
+}
+
+function gosuSetCount(gosuObject : tora.GosuDemoClass, n) {
+  gosuObject.Count = n / 2;
+  return gosuObject.Count;
+}
+
+function gosuSetFails(gosuObject : tora.GosuDemoClass, name) {
+  try {
+    gosuObject[name] = "x";
+    return false;
+  } catch (e) {
+    return true;
+  }
+}
+
+function listToJava(list : ArrayList) {
+  return JavaClass.count(list);
+}
+
+function gosuToJava(gosuObject : Object) {
+  return JavaClass.className(gosuObject);
+}
+
+function dynamicToJava(list, gosuObject) {
+  return JavaClass.count(list) + ":" + JavaClass.className(gosuObject);
+}
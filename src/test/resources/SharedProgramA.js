@@ -0,0 +1,5 @@
+var name = "A";
+
+function getName() {
+  return name;
+}
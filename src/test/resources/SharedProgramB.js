@@ -0,0 +1,5 @@
+var name = "B";
+
+function getName() {
+  return name;
+}
@@ -0,0 +1,14 @@
+import java.util.ArrayList
+import java.util.Comparator
+
+class SortedList extends ArrayList implements Comparator
+{
+    compare(a, b) {
+        return a - b;
+    }
+
+    addSorted(x) {
+        super.add(x);
+        super.sort(this._interfaceObject);
+    }
+}
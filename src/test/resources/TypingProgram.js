@@ -1,6 +1,7 @@
 
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.List;
 import java.lang.Integer
 import java.lang.Double
 
@@ -58,3 +59,14 @@ function takesInDoubleAndReturns(x : Double) {
    return x;
 }
 
+function returnsList() : List {
+   return [1, 2.5, 3];
+}
+
+function returnsDoubleArray() : double[] {
+   return [1, 2.5, 3];
+}
+
+function primitiveAdd(x : int, y : int) : int {
+   return x + y;
+}